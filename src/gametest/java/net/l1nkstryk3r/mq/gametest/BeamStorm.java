@@ -0,0 +1,211 @@
+package net.l1nkstryk3r.mq.gametest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.loader.api.FabricLoader;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the beam storm scenarios in {@link BeamStormTests} and writes their report.
+ * <p>
+ *     Every scenario is a {@link Run}: from the tick its beams are fired until the last one is gone, every
+ *     server tick's time, the level's entity count and the beam packets sent that tick are sampled. When a
+ *     run finishes, the report of every scenario so far is written as JSON to the file named by
+ *     {@code -Dl1nks-master-quest.storm.report} (default {@code beam-storm.json} in the run directory), so a
+ *     crashed storm still leaves the scenarios it finished behind.
+ * </p>
+ * <p>
+ *     Packets are the mod's own beam packets as counted by {@code BeamStats}. Entity beams in compatibility
+ *     mode are synced by the vanilla entity tracker, which isn't counted; their cost shows up in the entity
+ *     count and tick time instead.
+ * </p>
+ * <p>
+ *     The storm runs with its own config, written over the run directory's at server start: caps high
+ *     enough for every scenario to fire all its beams, and no load-based shrinking of caps, so every run
+ *     measures the same amount of work.
+ * </p>
+ */
+public final class BeamStorm implements ModInitializer {
+    private static final String REPORT_PROPERTY = L1nksMasterQuest.MOD_ID + ".storm.report";
+    private static final String MAX_P99_PROPERTY = L1nksMasterQuest.MOD_ID + ".storm.maxP99Millis";
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final int STORM_CAP = 4096;
+
+    // finished scenarios, in the order they ran
+    private static final JsonArray SCENARIOS = new JsonArray();
+    // the scenario being measured, null between scenarios
+    private static Run active;
+
+    @Override
+    public void onInitialize() {
+        ServerLifecycleEvents.SERVER_STARTING.register(server -> useStormConfig());
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (active != null) active.sample(server);
+        });
+    }
+
+    /**
+     * Starts measuring a scenario, right before its beams are fired.
+     *
+     * @param name Scenario name in the report
+     * @param beams How many beams the scenario fires
+     */
+    public static Run begin(String name, ServerLevel level, int beams) {
+        active = new Run(name, level, beams);
+        return active;
+    }
+
+    /**
+     * @return the highest p99 tick time a scenario may have in milliseconds, from
+     *         {@code -Dl1nks-master-quest.storm.maxP99Millis}, or infinity if no budget was given
+     */
+    public static double maxP99Millis() {
+        String budget = System.getProperty(MAX_P99_PROPERTY);
+        return budget == null ? Double.POSITIVE_INFINITY : Double.parseDouble(budget);
+    }
+
+    private static void useStormConfig() {
+        ModConfig storm = new ModConfig();
+        storm.admission.maxBeamsPerLevel = STORM_CAP;
+        storm.admission.maxBeamsPerRegion = STORM_CAP;
+        storm.admission.maxBeamsPerPlayer = STORM_CAP;
+        storm.admission.minCapScale = 1.0f;
+        storm.instrumentation = true;
+
+        Path path = FabricLoader.getInstance().getConfigDir().resolve(L1nksMasterQuest.MOD_ID + ".json");
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            GSON.toJson(storm, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the beam storm config to " + path, e);
+        }
+        List<String> errors = ModConfig.reload();
+        if (!errors.isEmpty()) throw new IllegalStateException("Invalid beam storm config: " + errors);
+    }
+
+    private static void writeReport() {
+        JsonObject report = new JsonObject();
+        report.addProperty("modVersion", FabricLoader.getInstance().getModContainer(L1nksMasterQuest.MOD_ID)
+            .map(mod -> mod.getMetadata().getVersion().getFriendlyString()).orElse("unknown"));
+        report.addProperty("minecraftVersion", SharedConstants.getCurrentVersion().getName());
+        report.addProperty("entityCompatMode", BeamManager.ENTITY_COMPAT_MODE);
+        report.add("scenarios", SCENARIOS);
+
+        Path path = Path.of(System.getProperty(REPORT_PROPERTY, "beam-storm.json"));
+        try {
+            if (path.getParent() != null) Files.createDirectories(path.getParent());
+            try (Writer writer = Files.newBufferedWriter(path)) {
+                GSON.toJson(report, writer);
+            }
+        } catch (IOException e) {
+            L1nksMasterQuest.LOGGER.error("Failed to write beam storm report {}", path, e);
+        }
+    }
+
+    /** One scenario being measured. */
+    public static final class Run {
+        private final String name;
+        private final ServerLevel level;
+        private final int beams;
+        private final long startPackets;
+
+        private final LongArrayList tickNanos = new LongArrayList();
+        private final LongArrayList packetsPerTick = new LongArrayList();
+        private long lastPackets;
+        private int peakEntities;
+        private double p99Millis = -1.0;
+
+        private Run(String name, ServerLevel level, int beams) {
+            this.name = name;
+            this.level = level;
+            this.beams = beams;
+            this.startPackets = BeamManager.get(level).stats().packets();
+            this.lastPackets = startPackets;
+        }
+
+        private void sample(MinecraftServer server) {
+            tickNanos.add(server.tickTimes[server.getTickCount() % server.tickTimes.length]);
+
+            long packets = BeamManager.get(level).stats().packets();
+            packetsPerTick.add(packets - lastPackets);
+            lastPackets = packets;
+
+            int entities = 0;
+            for (Entity ignored : level.getAllEntities()) entities++;
+            peakEntities = Math.max(peakEntities, entities);
+        }
+
+        /**
+         * Stops measuring and adds the scenario to the report. Does nothing after the first call.
+         *
+         * @param fired How many of the scenario's beams were actually fired
+         * @return true on the first call
+         */
+        public boolean finish(int fired) {
+            if (p99Millis >= 0.0) return false;
+            if (active == this) active = null;
+
+            long[] sorted = tickNanos.toLongArray();
+            Arrays.sort(sorted);
+            long totalPackets = lastPackets - startPackets;
+            long maxPackets = 0;
+            for (int i = 0; i < packetsPerTick.size(); i++) maxPackets = Math.max(maxPackets, packetsPerTick.getLong(i));
+            p99Millis = millis(percentile(sorted, 99));
+
+            JsonObject scenario = new JsonObject();
+            scenario.addProperty("name", name);
+            scenario.addProperty("beams", beams);
+            scenario.addProperty("fired", fired);
+            scenario.addProperty("ticks", sorted.length);
+            scenario.addProperty("msptP50", millis(percentile(sorted, 50)));
+            scenario.addProperty("msptP99", p99Millis);
+            scenario.addProperty("msptMax", millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+            scenario.addProperty("peakEntities", peakEntities);
+            scenario.addProperty("packets", totalPackets);
+            scenario.addProperty("packetsPerTickMean", sorted.length == 0 ? 0.0 : (double) totalPackets / sorted.length);
+            scenario.addProperty("packetsPerTickMax", maxPackets);
+            SCENARIOS.add(scenario);
+            writeReport();
+
+            L1nksMasterQuest.LOGGER.info(String.format(Locale.ROOT,
+                "Beam storm '%s': %d/%d beams, %d ticks, mspt p50 %.2f p99 %.2f, peak entities %d, packets %d",
+                name, fired, beams, sorted.length, millis(percentile(sorted, 50)), p99Millis, peakEntities, totalPackets));
+            return true;
+        }
+
+        /** @return the scenario's p99 tick time in milliseconds, once it has finished */
+        public double p99Millis() {
+            return p99Millis;
+        }
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1.0E6;
+    }
+}
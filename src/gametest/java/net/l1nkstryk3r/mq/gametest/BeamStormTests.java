@@ -0,0 +1,274 @@
+package net.l1nkstryk3r.mq.gametest;
+
+import com.mojang.authlib.GameProfile;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.item.ModItems;
+import net.l1nkstryk3r.mq.stats.BeamStats;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * The beam storm: scripted worst cases run on a headless GameTest server, measured by {@link BeamStorm}.
+ * <p>
+ *     Each scenario fires all its beams on one tick, from a grid of {@link FakePlayer}s facing +X, through
+ *     {@code MasterSword.use} like real shots, and ends when the last beam is gone. Fake players aren't in
+ *     the level, but beams hold on to their shooter, so their hits deal damage and effects like real ones. One mock player stands
+ *     behind the shooters looking the same way, so beam packets have someone to go to. Every scenario is
+ *     its own batch, so scenarios run one after another and never share tick time.
+ * </p>
+ * <p>
+ *     {@link #allocations} is the exception: it drives {@link BeamManager} itself, to count what it allocates.
+ * </p>
+ * <p>
+ *     Run with {@code ./gradlew runBeamStorm}.
+ * </p>
+ */
+public class BeamStormTests implements FabricGameTest {
+    // beams live 40 ticks by default, the rest is slack for slow machines and entity beams
+    private static final int TIMEOUT_TICKS = 400;
+    // shooters per row of the grid, and the spacing between them in blocks
+    private static final int SHOOTERS_PER_ROW = 40;
+    private static final double SHOOTER_SPACING = 0.5;
+    // yaw facing +X
+    private static final float FACING_X = -90.0f;
+
+    // the allocation check: beams per round, rounds to warm up and to measure, and what may be allocated.
+    // shots and ticks share a budget with room for the counter but not for one object per shot.
+    // every tick may also allocate a little on top: vanilla's entity iteration and chunk lookups do,
+    // however many beams fly. One object per beam per tick would be over 8 KB
+    private static final int ALLOCATION_BEAMS = 500;
+    private static final int ALLOCATION_WARMUP_ROUNDS = 20;
+    private static final int ALLOCATION_ROUNDS = 10;
+    private static final long ALLOCATION_BUDGET_BYTES = 16 * 1024;
+    private static final long ALLOCATION_TICK_ALLOWANCE_BYTES = 1024;
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "beam_storm_open_100", timeoutTicks = TIMEOUT_TICKS)
+    public void openArena100(GameTestHelper helper) {
+        storm(helper, "open_arena_100", 100, 0.0, SHOOTER_SPACING, () -> {}, () -> {});
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "beam_storm_open_500", timeoutTicks = TIMEOUT_TICKS)
+    public void openArena500(GameTestHelper helper) {
+        storm(helper, "open_arena_500", 500, 0.0, SHOOTER_SPACING, () -> {}, () -> {});
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, batch = "beam_storm_open_2000", timeoutTicks = TIMEOUT_TICKS)
+    public void openArena2000(GameTestHelper helper) {
+        storm(helper, "open_arena_2000", 2000, 0.0, SHOOTER_SPACING, () -> {}, () -> {});
+    }
+
+    /** 500 beams into a stone wall a few blocks ahead: every beam ends on a block hit. */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "beam_storm_walls", timeoutTicks = TIMEOUT_TICKS)
+    public void walls(GameTestHelper helper) {
+        int beams = 500;
+        int rows = (beams + SHOOTERS_PER_ROW - 1) / SHOOTERS_PER_ROW;
+        List<BlockPos> wall = new ArrayList<>();
+        for (int y = 0; y <= (int) Math.ceil(rows * SHOOTER_SPACING) + 2; y++) {
+            for (int z = -1; z <= (int) Math.ceil(SHOOTERS_PER_ROW * SHOOTER_SPACING) + 1; z++) {
+                BlockPos pos = new BlockPos(6, y, z);
+                helper.setBlock(pos, Blocks.STONE);
+                wall.add(pos);
+            }
+        }
+        storm(helper, "walls_500", beams, 0.0, SHOOTER_SPACING, () -> {}, () -> wall.forEach(pos -> helper.setBlock(pos, Blocks.AIR)));
+    }
+
+    /**
+     * 500 beams through a packed crowd of mobs standing still in mid-air, so every beam pierces
+     * through several of them and every tick has hits to resolve.
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "beam_storm_crowd", timeoutTicks = TIMEOUT_TICKS)
+    public void crowd(GameTestHelper helper) {
+        List<Mob> crowd = new ArrayList<>();
+        for (int x = 4; x < 12; x++) {
+            for (int z = 0; z <= SHOOTERS_PER_ROW * SHOOTER_SPACING; z++) {
+                // villagers are tall enough for every row of beams and don't burn in daylight
+                Mob mob = helper.spawnWithNoFreeWill(EntityType.VILLAGER, new Vec3(x + 0.5, 1.0, z + 0.5));
+                mob.setNoGravity(true);
+                crowd.add(mob);
+            }
+        }
+        // the hits have to be real ones: damage dealt and counted, not just pierce used up
+        BeamStats stats = BeamManager.get(helper.getLevel()).stats();
+        long hitsBefore = stats.entityHits();
+        Runnable assertHits = () -> {
+            helper.assertTrue(stats.entityHits() > hitsBefore, "no entity hits were recorded");
+            helper.assertTrue(crowd.stream().anyMatch(mob -> !mob.isAlive() || mob.getHealth() < mob.getMaxHealth()),
+                "no mob in the crowd took damage");
+        };
+        // beams leave 1.52 blocks above the shooter's feet, this keeps all 13 rows within the villagers' height
+        storm(helper, "crowd_500", 500, -0.4, 1.6 / 12, assertHits, () -> crowd.forEach(Mob::discard));
+    }
+
+    /**
+     * Checks that firing and stepping pooled beams allocates nothing, through the real {@link BeamManager}:
+     * the part of the allocation check that needs a level, the rest is {@code AllocationBudget} in src/jmh.
+     * <p>
+     *     Every round fires {@value #ALLOCATION_BEAMS} beams with {@link BeamManager#fire} and ticks the
+     *     manager directly until they are gone. The lower rows fly into a stone wall and end on a block hit,
+     *     the upper ones expire, and nobody is near enough to keep them from the level of detail's waits, so
+     *     path solves, raycasts, block hits, ends and skipped ticks all run. After enough rounds to warm up,
+     *     the bytes the server thread allocates inside those calls are counted; moving the shooter between
+     *     shots isn't.
+     * </p>
+     * <p>
+     *     No player is near, so no packet is encoded: a packet someone receives costs its buffer, which is the
+     *     network's cost rather than the beam engine's. Entity hits aren't covered either, the damage they deal
+     *     is vanilla's and allocates.
+     * </p>
+     */
+    @GameTest(template = EMPTY_STRUCTURE, batch = "beam_storm_allocations", timeoutTicks = TIMEOUT_TICKS)
+    public void allocations(GameTestHelper helper) {
+        ServerLevel level = helper.getLevel();
+        BeamManager manager = BeamManager.get(level);
+
+        // up to about the middle row's beams
+        int rows = (ALLOCATION_BEAMS + SHOOTERS_PER_ROW - 1) / SHOOTERS_PER_ROW;
+        List<BlockPos> wall = new ArrayList<>();
+        for (int y = 0; y <= (int) (rows / 2 * SHOOTER_SPACING); y++) {
+            for (int z = -1; z <= (int) Math.ceil(SHOOTERS_PER_ROW * SHOOTER_SPACING) + 1; z++) {
+                BlockPos pos = new BlockPos(12, y, z);
+                helper.setBlock(pos, Blocks.STONE);
+                wall.add(pos);
+            }
+        }
+        List<Vec3> spots = new ArrayList<>();
+        for (int i = 0; i < ALLOCATION_BEAMS; i++) {
+            spots.add(helper.absoluteVec(new Vec3(
+                0.5,
+                (i / SHOOTERS_PER_ROW) * SHOOTER_SPACING,
+                0.25 + (i % SHOOTERS_PER_ROW) * SHOOTER_SPACING
+            )));
+        }
+        FakePlayer shooter = FakePlayer.get(level, profile(0));
+
+        for (int round = 0; round < ALLOCATION_WARMUP_ROUNDS; round++) {
+            allocationRound(manager, shooter, spots, null);
+        }
+        // bytes allocated by shots, then by ticks
+        long[] allocated = new long[2];
+        int ticks = 0;
+        for (int round = 0; round < ALLOCATION_ROUNDS; round++) {
+            ticks += allocationRound(manager, shooter, spots, allocated);
+        }
+        wall.forEach(pos -> helper.setBlock(pos, Blocks.AIR));
+
+        int shots = ALLOCATION_BEAMS * ALLOCATION_ROUNDS;
+        long budget = ALLOCATION_BUDGET_BYTES + ticks * ALLOCATION_TICK_ALLOWANCE_BYTES;
+        L1nksMasterQuest.LOGGER.info("Beam storm 'allocations': {} bytes over {} shots, {} bytes over {} ticks",
+            allocated[0], shots, allocated[1], ticks);
+        helper.assertTrue(allocated[0] + allocated[1] <= budget, String.format(Locale.ROOT,
+            "%d shots and %d ticks allocated %d bytes, over the budget of %d",
+            shots, ticks, allocated[0] + allocated[1], budget));
+        helper.succeed();
+    }
+
+    /**
+     * Fires a beam from every spot, then ticks the manager until all of them are gone.
+     *
+     * @param allocated Receives the bytes the shots and the ticks allocated, or null while warming up
+     * @return how many ticks it took
+     */
+    private static int allocationRound(BeamManager manager, FakePlayer shooter, List<Vec3> spots, @Nullable long[] allocated) {
+        for (Vec3 spot : spots) {
+            shooter.moveTo(spot.x, spot.y, spot.z, FACING_X, 0.0f);
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            manager.fire(shooter, 0);
+            if (allocated != null) allocated[0] += THREADS.getCurrentThreadAllocatedBytes() - before;
+        }
+
+        int ticks = 0;
+        while (manager.liveCount() > 0) {
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            manager.tick();
+            if (allocated != null) allocated[1] += THREADS.getCurrentThreadAllocatedBytes() - before;
+            ticks++;
+        }
+        return ticks;
+    }
+
+    /**
+     * Fires a scenario's beams and finishes its measurement once they are all gone.
+     *
+     * @param firstRowY Relative feet height of the lowest row of shooters
+     * @param rowSpacing Height between rows of shooters
+     * @param check Scenario-specific assertions, run once its beams are gone and before cleanup
+     * @param cleanup Removes whatever the scenario placed, run once its beams are gone
+     */
+    private static void storm(GameTestHelper helper, String name, int beams, double firstRowY, double rowSpacing,
+                              Runnable check, Runnable cleanup) {
+        ServerLevel level = helper.getLevel();
+        BeamManager manager = BeamManager.get(level);
+
+        ServerPlayer viewer = helper.makeMockServerPlayerInLevel();
+        Vec3 behind = helper.absoluteVec(new Vec3(-4.0, 1.0, SHOOTERS_PER_ROW * SHOOTER_SPACING * 0.5));
+        viewer.teleportTo(level, behind.x, behind.y, behind.z, FACING_X, 0.0f);
+
+        int before = manager.admission().liveBeams();
+        BeamStorm.Run run = BeamStorm.begin(name, level, beams);
+        for (int i = 0; i < beams; i++) {
+            Vec3 pos = helper.absoluteVec(new Vec3(
+                0.5,
+                firstRowY + (i / SHOOTERS_PER_ROW) * rowSpacing,
+                0.25 + (i % SHOOTERS_PER_ROW) * SHOOTER_SPACING
+            ));
+            fire(level, i, pos);
+        }
+        int fired = manager.admission().liveBeams() - before;
+
+        helper.succeedWhen(() -> {
+            helper.assertTrue(manager.admission().liveBeams() == 0, "beams still flying");
+            check.run();
+            // assertions below that fail are retried every tick until the timeout, clean up only once
+            if (run.finish(fired)) {
+                cleanup.run();
+                level.getServer().getPlayerList().remove(viewer);
+            }
+
+            helper.assertTrue(fired == beams, fired + " of " + beams + " beams were admitted");
+            helper.assertTrue(run.p99Millis() <= BeamStorm.maxP99Millis(), String.format(Locale.ROOT,
+                "mspt p99 %.2f is over the budget of %.2f", run.p99Millis(), BeamStorm.maxP99Millis()));
+        });
+    }
+
+    /** Fires one shot through the sword, from the storm's fake player with the given index. */
+    private static void fire(ServerLevel level, int shooter, Vec3 pos) {
+        FakePlayer player = FakePlayer.get(level, profile(shooter));
+        player.moveTo(pos.x, pos.y, pos.z, FACING_X, 0.0f);
+        player.setHealth(player.getMaxHealth());
+        if (!player.getMainHandItem().is(ModItems.MASTER_SWORD)) {
+            player.setItemInHand(InteractionHand.MAIN_HAND, new ItemStack(ModItems.MASTER_SWORD));
+        }
+        // fake players never tick, so the cooldown from the previous scenario would never run out
+        player.getCooldowns().removeCooldown(ModItems.MASTER_SWORD);
+        player.getMainHandItem().use(level, player, InteractionHand.MAIN_HAND);
+    }
+
+    /** Fake players are keyed by profile, so each shooter index keeps its fake player across scenarios. */
+    private static GameProfile profile(int shooter) {
+        String name = "mq_storm_" + shooter;
+        return new GameProfile(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)), name);
+    }
+}
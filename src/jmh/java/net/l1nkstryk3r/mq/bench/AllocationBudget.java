@@ -0,0 +1,143 @@
+package net.l1nkstryk3r.mq.bench;
+
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamMotion;
+import net.l1nkstryk3r.mq.beam.BeamSpatialHash;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.l1nkstryk3r.mq.renderer.BeamBatchRenderer;
+import net.minecraft.world.phys.Vec3;
+import org.joml.Matrix4f;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Checks that the level-free parts of a beam tick and a beam frame don't allocate in steady state.
+ * Run by {@code ./gradlew allocationBudget}, which {@code check} depends on, so a regression fails the build.
+ * <p>
+ *     Each path runs on the same seeded scene as the benchmarks ({@link BeamLayout}): first long enough for
+ *     every growable array to reach its final size, then {@value #ITERATIONS} more times while the bytes
+ *     this thread allocates are counted (through {@code com.sun.management.ThreadMXBean}). A path fails if
+ *     it allocates more than {@value #BUDGET_BYTES} bytes over all of them, which leaves room for the
+ *     counter itself but not for even one object per iteration.
+ * </p>
+ * <p>
+ *     Every path calls the production code, not a copy of it:
+ *     <ul>
+ *         <li>tick: {@link BeamStore#sweep} and {@link BeamStore#commitSweep}, the motion of
+ *             {@code BeamManager.step}, through {@link BeamTickBenchmark}</li>
+ *         <li>hits: the real {@link BeamSpatialHash} is rebuilt and queried by every beam, as in
+ *             {@link BeamHitBenchmark}</li>
+ *         <li>lerp: {@link BeamMotion#lerpTowards(Vec3, double, double, double)}, all the entity beam's
+ *             {@code lerpMotion} does, for every beam. The entity only takes its motion as a {@code Vec3},
+ *             so this path may allocate exactly one per call on top of the budget</li>
+ *         <li>render: {@link BeamBatchRenderer#queueBeams} and {@link BeamBatchRenderer#emitQueued}, the
+ *             whole of {@code flush} but the render context, with the camera in the middle of the scene so
+ *             every level of detail is drawn, into a {@link RecordingVertexConsumer}</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     The rest of {@code BeamManager}, firing, hits and packets, needs a level. The {@code allocations}
+ *     scenario of the beam storm checks those on a real server.
+ * </p>
+ */
+public final class AllocationBudget {
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+    private static final long BUDGET_BYTES = 16 * 1024;
+    // camera in the middle of BeamLayout's square, so beams are spread over every level of detail
+    private static final double CAMERA_XZ = 64.0;
+    private static final double CAMERA_Y = 66.0;
+    private static final long GAME_TIME = 100_000L;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // keeps the results of each path alive so none of the work can be skipped
+    private static long checksum;
+
+    private AllocationBudget() {}
+
+    public static void main(String[] args) {
+        BeamLayout layout = new BeamLayout();
+        layout.beamCount = 500;
+        layout.entityDensity = 4;
+        layout.setUp();
+
+        BeamTickBenchmark tick = new BeamTickBenchmark();
+        BeamSpatialHash grid = new BeamSpatialHash();
+        BeamSpatialHash.Filter acceptAll = index -> true;
+        BeamLerpBenchmark lerp = new BeamLerpBenchmark();
+        lerp.setUp(layout);
+        RecordingVertexConsumer consumer = new RecordingVertexConsumer();
+        Matrix4f view = new Matrix4f();
+        ModConfig.Render lod = new ModConfig.Render();
+
+        long lerpAllowance = (long) ITERATIONS * layout.beams.size() * vec3Bytes();
+
+        boolean passed = check("tick", 0, () -> checksum += tick.step(layout));
+        passed &= check("hits", 0, () -> hits(layout, grid, acceptAll));
+        passed &= check("lerp", lerpAllowance, () -> checksum += lerp.lerpMotion(layout).length);
+        passed &= check("render", 0, () -> render(layout, consumer, view, lod));
+
+        System.out.println("checksum " + checksum);
+        if (!passed) System.exit(1);
+    }
+
+    /**
+     * Runs a path until it is warm, then counts what it allocates.
+     *
+     * @param allowance Bytes the path may allocate on top of the budget, for objects the game's API requires
+     */
+    private static boolean check(String name, long allowance, Runnable path) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) path.run();
+
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) path.run();
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+
+        long budget = BUDGET_BYTES + allowance;
+        boolean passed = allocated <= budget;
+        System.out.printf("%-8s %10d bytes over %d iterations (budget %d) %s%n",
+            name, allocated, ITERATIONS, budget, passed ? "ok" : "OVER BUDGET");
+        return passed;
+    }
+
+    /** @return how many bytes one {@link Vec3} takes on this JVM */
+    private static long vec3Bytes() {
+        Vec3[] sink = new Vec3[ITERATIONS];
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < sink.length; i++) sink[i] = new Vec3(i, i, i);
+        long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+        checksum += sink.length;
+        return allocated / sink.length;
+    }
+
+    private static void hits(BeamLayout layout, BeamSpatialHash grid, BeamSpatialHash.Filter filter) {
+        grid.clear();
+        double margin = BeamManager.HIT_MARGIN;
+        for (int i = 0; i < layout.entityCount; i++) {
+            double x = layout.entityX[i], y = layout.entityY[i], z = layout.entityZ[i];
+            grid.add(
+                x - BeamLayout.ENTITY_HALF_WIDTH - margin, y - margin, z - BeamLayout.ENTITY_HALF_WIDTH - margin,
+                x + BeamLayout.ENTITY_HALF_WIDTH + margin, y + BeamLayout.ENTITY_HEIGHT + margin, z + BeamLayout.ENTITY_HALF_WIDTH + margin
+            );
+        }
+
+        BeamStore beams = layout.beams;
+        for (int i = 0; i < beams.size(); i++) {
+            int slot = beams.activeSlot(i);
+            double x = beams.x[slot], y = beams.y[slot], z = beams.z[slot];
+            checksum += grid.queryNearest(x, y, z, x + beams.vx[slot], y + beams.vy[slot], z + beams.vz[slot], filter);
+        }
+    }
+
+    private static void render(BeamLayout layout, RecordingVertexConsumer consumer, Matrix4f view, ModConfig.Render lod) {
+        consumer.reset();
+        float farSqr = lod.farDistance * lod.farDistance;
+        BeamBatchRenderer.queueBeams(layout.beams, null, GAME_TIME, CAMERA_XZ, CAMERA_Y, CAMERA_XZ, 0.5f, farSqr);
+        BeamBatchRenderer.emitQueued(consumer, view,
+            lod.nearDistance * lod.nearDistance, lod.midDistance * lod.midDistance, farSqr);
+        checksum += consumer.vertices;
+    }
+}
@@ -0,0 +1,66 @@
+package net.l1nkstryk3r.mq.bench;
+
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamSpatialHash;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Swept hit tests for one tick: filing every entity into the broad phase grid, then finding the
+ * first entity each beam's motion this tick enters, the same way {@link BeamManager} does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BeamHitBenchmark {
+    private final BeamSpatialHash grid = new BeamSpatialHash();
+    private final BeamSpatialHash.Filter acceptAll = index -> true;
+
+    @Setup
+    public void setUp(BeamLayout layout) {
+        build(layout);
+    }
+
+    /** Grid rebuild plus every beam's query, i.e. the whole hit phase of a tick. */
+    @Benchmark
+    public void tick(BeamLayout layout, Blackhole blackhole) {
+        build(layout);
+        query(layout, blackhole);
+    }
+
+    /** Only the queries, against a grid built once. */
+    @Benchmark
+    public void queryOnly(BeamLayout layout, Blackhole blackhole) {
+        query(layout, blackhole);
+    }
+
+    private void build(BeamLayout layout) {
+        grid.clear();
+        double margin = BeamManager.HIT_MARGIN;
+        for (int i = 0; i < layout.entityCount; i++) {
+            double x = layout.entityX[i], y = layout.entityY[i], z = layout.entityZ[i];
+            grid.add(
+                x - BeamLayout.ENTITY_HALF_WIDTH - margin, y - margin, z - BeamLayout.ENTITY_HALF_WIDTH - margin,
+                x + BeamLayout.ENTITY_HALF_WIDTH + margin, y + BeamLayout.ENTITY_HEIGHT + margin, z + BeamLayout.ENTITY_HALF_WIDTH + margin
+            );
+        }
+    }
+
+    private void query(BeamLayout layout, Blackhole blackhole) {
+        BeamStore beams = layout.beams;
+        for (int i = 0; i < beams.size(); i++) {
+            int slot = beams.activeSlot(i);
+            double x = beams.x[slot], y = beams.y[slot], z = beams.z[slot];
+            blackhole.consume(grid.queryNearest(x, y, z, x + beams.vx[slot], y + beams.vy[slot], z + beams.vz[slot], acceptAll));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package net.l1nkstryk3r.mq.bench;
+
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * A synthetic battlefield shared by every benchmark: beams fired from random spots in random directions
+ * over a square of chunks, and entity-sized boxes scattered over the same square.
+ * <p>
+ *     The layout is seeded, so every run and every version measures the exact same scene.
+ * </p>
+ */
+@State(Scope.Benchmark)
+public class BeamLayout {
+    // side of the square the scene is spread over, in chunks
+    private static final int AREA_CHUNKS = 8;
+    private static final double AREA = AREA_CHUNKS * 16.0;
+    private static final long SEED = 0x5EED_BEA3L;
+
+    // roughly a player or zombie
+    static final double ENTITY_HALF_WIDTH = 0.3;
+    static final double ENTITY_HEIGHT = 1.8;
+
+    /** Live beams in the scene. */
+    @Param({ "100", "500", "2000" })
+    public int beamCount;
+
+    /** Entities per chunk in the scene. */
+    @Param({ "0", "4", "32" })
+    public int entityDensity;
+
+    BeamStore beams;
+    // where each slot was fired from, so beams can be re-fired once they expire
+    double[] originX, originY, originZ;
+    double[] dirX, dirY, dirZ;
+
+    // entity boxes by their feet position
+    double[] entityX, entityY, entityZ;
+    int entityCount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+
+        beams = new BeamStore();
+        originX = new double[beamCount];
+        originY = new double[beamCount];
+        originZ = new double[beamCount];
+        dirX = new double[beamCount];
+        dirY = new double[beamCount];
+        dirZ = new double[beamCount];
+
+        for (int i = 0; i < beamCount; i++) {
+            originX[i] = random.nextDouble() * AREA;
+            originY[i] = 64.0 + random.nextDouble() * 4.0;
+            originZ[i] = random.nextDouble() * AREA;
+
+            // mostly level shots, like a player aiming at mobs
+            double yaw = random.nextDouble() * Math.PI * 2.0;
+            double pitch = (random.nextDouble() - 0.5) * 0.5;
+            dirX[i] = -Math.sin(yaw) * Math.cos(pitch);
+            dirY[i] = -Math.sin(pitch);
+            dirZ[i] = Math.cos(yaw) * Math.cos(pitch);
+
+            // a fresh store hands out slots in order, so slot i is fired from origin i
+            int slot = beams.allocate(originX[i], originY[i], originZ[i], 0, 0, 0, 0, BeamTuning.DEFAULTS.lifetimeTicks);
+            refire(slot, i);
+            // spread ages out so beams don't all expire on the same tick
+            int age = random.nextInt(BeamTuning.DEFAULTS.lifetimeTicks);
+            for (int step = 0; step < age; step++) {
+                beams.age[slot]++;
+                beams.move(slot, BeamManager.AIR_DRAG);
+            }
+        }
+
+        entityCount = entityDensity * AREA_CHUNKS * AREA_CHUNKS;
+        entityX = new double[entityCount];
+        entityY = new double[entityCount];
+        entityZ = new double[entityCount];
+        for (int i = 0; i < entityCount; i++) {
+            entityX[i] = random.nextDouble() * AREA;
+            entityY[i] = 63.0 + random.nextDouble() * 3.0;
+            entityZ[i] = random.nextDouble() * AREA;
+        }
+    }
+
+    /** Puts a beam back at the start of its flight, as if its shooter fired again. */
+    void refire(int slot, int origin) {
+        beams.x[slot] = originX[origin];
+        beams.y[slot] = originY[origin];
+        beams.z[slot] = originZ[origin];
+        beams.vx[slot] = dirX[origin] * BeamTuning.DEFAULTS.speed;
+        beams.vy[slot] = dirY[origin] * BeamTuning.DEFAULTS.speed;
+        beams.vz[slot] = dirZ[origin] * BeamTuning.DEFAULTS.speed;
+        beams.age[slot] = 0;
+    }
+}
@@ -0,0 +1,54 @@
+package net.l1nkstryk3r.mq.bench;
+
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamMotion;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import net.minecraft.world.phys.Vec3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The entity beam's {@code lerpMotion}, applied once to every beam, as when a velocity update arrives for each.
+ * <p>
+ *     Each beam's motion is a {@link Vec3}, like an entity's, and is replaced by what
+ *     {@link BeamMotion#lerpTowards(Vec3, double, double, double)} returns, which is all {@code lerpMotion} does.
+ *     The new {@code Vec3} per update is part of what is measured: the entity only takes its motion as one.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BeamLerpBenchmark {
+    // each slot's motion as the entity would hold it
+    Vec3[] motions;
+
+    @Setup
+    public void setUp(BeamLayout layout) {
+        BeamStore beams = layout.beams;
+        motions = new Vec3[beams.capacity()];
+        for (int i = 0; i < beams.size(); i++) {
+            int slot = beams.activeSlot(i);
+            motions[slot] = new Vec3(beams.vx[slot], beams.vy[slot], beams.vz[slot]);
+        }
+    }
+
+    @Benchmark
+    public Vec3[] lerpMotion(BeamLayout layout) {
+        BeamStore beams = layout.beams;
+        for (int i = 0; i < beams.size(); i++) {
+            int slot = beams.activeSlot(i);
+            // the server's view is one tick of drag ahead
+            double drag = BeamManager.AIR_DRAG;
+            motions[slot] = BeamMotion.lerpTowards(motions[slot], beams.vx[slot] * drag, beams.vy[slot] * drag, beams.vz[slot] * drag);
+        }
+        // returning the motions keeps the blends from being optimized away
+        return motions;
+    }
+}
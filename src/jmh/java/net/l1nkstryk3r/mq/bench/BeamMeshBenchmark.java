@@ -0,0 +1,51 @@
+package net.l1nkstryk3r.mq.bench;
+
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import net.l1nkstryk3r.mq.renderer.BeamMesh;
+import net.l1nkstryk3r.mq.renderer.BeamRenderType;
+import net.minecraft.util.Mth;
+import org.joml.Matrix4f;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One frame of beam vertex emission: the same per-beam transform {@code BeamBatchRenderer} builds,
+ * then the mesh written into a {@link RecordingVertexConsumer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BeamMeshBenchmark {
+    private final RecordingVertexConsumer consumer = new RecordingVertexConsumer();
+    private final Matrix4f view = new Matrix4f().rotateX(0.3f).rotateY(1.1f);
+    private final Matrix4f pose = new Matrix4f();
+
+    @Benchmark
+    public int emit(BeamLayout layout) {
+        consumer.reset();
+        BeamStore beams = layout.beams;
+
+        for (int i = 0; i < beams.size(); i++) {
+            int slot = beams.activeSlot(i);
+            double vx = beams.vx[slot], vy = beams.vy[slot], vz = beams.vz[slot];
+            float yRot = (float) Mth.atan2(vx, vz);
+            float xRot = (float) Mth.atan2(vy, Math.sqrt(vx * vx + vz * vz));
+
+            pose.set(view)
+                .translate((float) beams.x[slot], (float) beams.y[slot], (float) beams.z[slot])
+                .rotateY(yRot)
+                .rotateX(-xRot)
+                .rotateZ(Mth.PI);
+
+            BeamMesh.emit(consumer, pose, BeamRenderType.TIME_WRAP - beams.age[slot], beams.lifetime[slot]);
+        }
+        // returning the count keeps the writes from being optimized away
+        return consumer.vertices;
+    }
+}
@@ -0,0 +1,35 @@
+package net.l1nkstryk3r.mq.bench;
+
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One server tick of beam motion: every live beam ages and moves, and expired beams are re-fired
+ * so the beam count stays at {@link BeamLayout#beamCount}.
+ * <p>
+ *     The motion is {@link BeamStore#sweep} and {@link BeamStore#commitSweep}, the same calls
+ *     {@code BeamManager}'s step makes around its hit tests, for a beam stepped every tick.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeamTickBenchmark {
+    @Benchmark
+    public int step(BeamLayout layout) {
+        BeamStore beams = layout.beams;
+        for (int i = beams.size() - 1; i >= 0; i--) {
+            int slot = beams.activeSlot(i);
+            beams.age[slot]++;
+            beams.sweep(slot, 1, BeamManager.AIR_DRAG);
+            beams.commitSweep(slot);
+            if (beams.age[slot] > beams.lifetime[slot]) layout.refire(slot, slot);
+        }
+        return beams.size();
+    }
+}
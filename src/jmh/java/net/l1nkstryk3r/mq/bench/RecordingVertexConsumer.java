@@ -0,0 +1,83 @@
+package net.l1nkstryk3r.mq.bench;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+
+import java.util.Arrays;
+
+/**
+ * A {@link VertexConsumer} that just copies every vertex into a growable float array,
+ * so emission can be measured without a GL buffer and checked by reading the array back.
+ */
+final class RecordingVertexConsumer implements VertexConsumer {
+    // position, uv, and the beam's spawn tick and lifetime packed into one int stored as float bits
+    static final int FLOATS_PER_VERTEX = 6;
+
+    float[] data = new float[FLOATS_PER_VERTEX * 64];
+    int vertices;
+    private int offset;
+
+    void reset() {
+        vertices = 0;
+        offset = 0;
+    }
+
+    private void put(float value) {
+        if (offset == data.length) data = Arrays.copyOf(data, data.length * 2);
+        data[offset++] = value;
+    }
+
+    @Override
+    public VertexConsumer vertex(double x, double y, double z) {
+        put((float) x);
+        put((float) y);
+        put((float) z);
+        return this;
+    }
+
+    @Override
+    public VertexConsumer color(int red, int green, int blue, int alpha) {
+        put(red / 255.0f);
+        put(green / 255.0f);
+        put(blue / 255.0f);
+        put(alpha / 255.0f);
+        return this;
+    }
+
+    @Override
+    public VertexConsumer uv(float u, float v) {
+        put(u);
+        put(v);
+        return this;
+    }
+
+    @Override
+    public VertexConsumer overlayCoords(int u, int v) {
+        put(Float.intBitsToFloat(u | v << 16));
+        return this;
+    }
+
+    @Override
+    public VertexConsumer uv2(int u, int v) {
+        put(Float.intBitsToFloat(u | v << 16));
+        return this;
+    }
+
+    @Override
+    public VertexConsumer normal(float x, float y, float z) {
+        put(x);
+        put(y);
+        put(z);
+        return this;
+    }
+
+    @Override
+    public void endVertex() {
+        vertices++;
+    }
+
+    @Override
+    public void defaultColor(int red, int green, int blue, int alpha) {}
+
+    @Override
+    public void unsetDefaultColor() {}
+}
@@ -1,8 +1,15 @@
 package net.l1nkstryk3r.mq;
 
 import net.fabricmc.api.ModInitializer;
+import net.l1nkstryk3r.mq.beam.BeamEligibility;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamPredictions;
+import net.l1nkstryk3r.mq.command.ModCommands;
+import net.l1nkstryk3r.mq.config.ModConfig;
 import net.l1nkstryk3r.mq.entity.ModEntities;
 import net.l1nkstryk3r.mq.item.ModItems;
+import net.l1nkstryk3r.mq.trace.BeamTraceRecorder;
+import net.l1nkstryk3r.mq.trace.BeamTraceReplay;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,7 +21,15 @@ public class L1nksMasterQuest implements ModInitializer {
 	public void onInitialize() {
         LOGGER.info("Initializing mod: {}", MOD_ID);
 
+        ModConfig.load();
+
         ModItems.initialize();
         ModEntities.initialize();
+        BeamManager.initialize();
+        BeamPredictions.initialize();
+        BeamEligibility.initialize();
+        BeamTraceRecorder.initialize();
+        BeamTraceReplay.initialize();
+        ModCommands.initialize();
 	}
 }
\ No newline at end of file
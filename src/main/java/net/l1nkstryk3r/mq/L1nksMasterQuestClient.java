@@ -2,7 +2,14 @@ package net.l1nkstryk3r.mq;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.rendering.v1.EntityRendererRegistry;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
+import net.l1nkstryk3r.mq.client.ClientBeamEffects;
+import net.l1nkstryk3r.mq.client.ClientBeamEligibility;
+import net.l1nkstryk3r.mq.client.ClientBeamWarmup;
+import net.l1nkstryk3r.mq.client.ClientBeams;
 import net.l1nkstryk3r.mq.entity.ModEntities;
+import net.l1nkstryk3r.mq.renderer.BeamBatchRenderer;
+import net.l1nkstryk3r.mq.renderer.BeamRenderType;
 import net.l1nkstryk3r.mq.renderer.MasterSwordBeamRenderer;
 
 /**
@@ -24,5 +31,22 @@ public class L1nksMasterQuestClient implements ClientModInitializer {
         // register the custom renderer for the Master Sword Beam entity.
         // tells Minecraft which class handles how the projectile is drawn.
         EntityRendererRegistry.register(ModEntities.MASTER_SWORD_BEAM, MasterSwordBeamRenderer::new);
+
+        // pooled beams aren't entities: simulate them from their spawn packet
+        ClientBeams.initialize();
+
+        // impact particles and beam sounds arrive batched once per tick and are played locally
+        ClientBeamEffects.initialize();
+
+        // right-clicks the server would ignore (not charged, or on cooldown) are dropped before they're sent
+        ClientBeamEligibility.initialize();
+
+        // draw every beam queued during the frame in one batch once the entity pass is done,
+        // animated by the beam's own core shader
+        BeamRenderType.initialize();
+        WorldRenderEvents.AFTER_ENTITIES.register(BeamBatchRenderer::flush);
+
+        // load the beam's render type, texture and sounds behind the title screen, not on the first beam
+        ClientBeamWarmup.initialize();
     }
 }
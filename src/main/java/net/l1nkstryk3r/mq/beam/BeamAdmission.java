@@ -0,0 +1,105 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.ChunkPos;
+
+/**
+ * Decides whether a new beam may be fired in a level.
+ * <p>
+ *     Keeps running counts of live beams for the whole level, for each region of chunks, and for each
+ *     player. Every shot and every removal updates them in O(1), so checking a shot never has to
+ *     scan the live beams.
+ * </p>
+ * <p>
+ *     When the server falls behind (average tick time above {@code msptThreshold}) all caps are scaled
+ *     down proportionally, down to {@code minCapScale} of their configured value.
+ * </p>
+ */
+public final class BeamAdmission {
+    /** Why a shot was refused, or {@link #ADMITTED} if it wasn't. */
+    public enum Result {
+        ADMITTED,
+        LEVEL_FULL,
+        REGION_FULL,
+        PLAYER_FULL
+    }
+
+    private final Long2IntOpenHashMap perRegion = new Long2IntOpenHashMap();
+    private final Int2IntOpenHashMap perPlayer = new Int2IntOpenHashMap();
+    private int inLevel;
+
+    // recomputed once per tick from the server's tick time
+    private float capScale = 1.0f;
+
+    /**
+     * Recomputes how much the caps are shrunk based on the server's current load.
+     *
+     * @param averageTickMillis The server's average tick time in milliseconds
+     */
+    public void updateLoad(float averageTickMillis) {
+        ModConfig.Admission config = ModConfig.get().admission;
+        if (averageTickMillis <= config.msptThreshold) {
+            capScale = 1.0f;
+        } else {
+            capScale = Mth.clamp(config.msptThreshold / averageTickMillis, config.minCapScale, 1.0f);
+        }
+    }
+
+    /**
+     * Checks every cap for a new beam and, if it fits, counts it.
+     *
+     * @param ownerId Entity id of the shooter
+     * @param region Region key from {@link #regionOf(double, double)}
+     * @return {@link Result#ADMITTED} if the beam was counted and may be fired
+     */
+    public Result tryAdmit(int ownerId, long region) {
+        return tryAdmit(ownerId, region, 1);
+    }
+
+    /**
+     * Checks every cap for several beams fired together (a volley) and, if all of them fit, counts them.
+     * Each one is given back with its own {@link #release}.
+     *
+     * @param count How many beams are fired
+     * @return {@link Result#ADMITTED} if the beams were counted and may be fired
+     */
+    public Result tryAdmit(int ownerId, long region, int count) {
+        ModConfig.Admission config = ModConfig.get().admission;
+
+        if (inLevel + count > scaled(config.maxBeamsPerLevel)) return Result.LEVEL_FULL;
+        if (perRegion.get(region) + count > scaled(config.maxBeamsPerRegion)) return Result.REGION_FULL;
+        if (perPlayer.get(ownerId) + count > scaled(config.maxBeamsPerPlayer)) return Result.PLAYER_FULL;
+
+        inLevel += count;
+        perRegion.addTo(region, count);
+        perPlayer.addTo(ownerId, count);
+        return Result.ADMITTED;
+    }
+
+    /** Un-counts a beam that was admitted with the same owner and region. */
+    public void release(int ownerId, long region) {
+        inLevel--;
+        if (perRegion.addTo(region, -1) <= 1) perRegion.remove(region);
+        if (perPlayer.addTo(ownerId, -1) <= 1) perPlayer.remove(ownerId);
+    }
+
+    /** @return how many beams are alive in the level, pooled and entity beams alike */
+    public int liveBeams() {
+        return inLevel;
+    }
+
+    /** @return the region key for a block position */
+    public static long regionOf(double x, double z) {
+        int size = Math.max(ModConfig.get().admission.regionSizeChunks, 1);
+        int regionX = Math.floorDiv(Mth.floor(x) >> 4, size);
+        int regionZ = Math.floorDiv(Mth.floor(z) >> 4, size);
+        return ChunkPos.asLong(regionX, regionZ);
+    }
+
+    private int scaled(int cap) {
+        return Math.max(1, (int) (cap * capScale));
+    }
+}
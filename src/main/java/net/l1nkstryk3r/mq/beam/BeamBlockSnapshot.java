@@ -0,0 +1,105 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.material.FluidState;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A frozen copy of the block states a beam's path can touch, safe to read from any thread.
+ * <p>
+ *     Only the chunk sections along the path are copied, and all-air sections aren't stored at all.
+ *     Still, every shot copies each such section whole on the server thread, a few kilobytes per section,
+ *     and nobody has measured that against just solving the path there. That is why
+ *     {@code asyncBeamPaths} is off by default.
+ * </p>
+ * <p>
+ *     Anything outside the copied sections (unloaded chunks, blocks off the path) reads as air,
+ *     and there are no block entities.
+ * </p>
+ */
+public final class BeamBlockSnapshot implements BlockGetter {
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    // section copies by SectionPos.asLong
+    private final Long2ObjectOpenHashMap<PalettedContainer<BlockState>> sections = new Long2ObjectOpenHashMap<>();
+    private final int minBuildHeight;
+    private final int height;
+
+    private BeamBlockSnapshot(ServerLevel level) {
+        this.minBuildHeight = level.getMinBuildHeight();
+        this.height = level.getHeight();
+    }
+
+    /**
+     * Copies the sections of the given chunks between two heights.
+     * Must be called on the server thread.
+     *
+     * @param chunks Chunk keys ({@link ChunkPos#asLong}), e.g. from {@link BeamTrajectory#chunksAlong}
+     * @param minY Lowest block height of the path
+     * @param maxY Highest block height of the path
+     */
+    public static BeamBlockSnapshot capture(ServerLevel level, long[] chunks, int offset, int count, double minY, double maxY) {
+        BeamBlockSnapshot snapshot = new BeamBlockSnapshot(level);
+        int minSection = Math.max(SectionPos.blockToSectionCoord(minY), level.getMinSection());
+        int maxSection = Math.min(SectionPos.blockToSectionCoord(maxY), level.getMaxSection() - 1);
+
+        for (int i = 0; i < count; i++) {
+            long key = chunks[offset + i];
+            int chunkX = ChunkPos.getX(key), chunkZ = ChunkPos.getZ(key);
+
+            // never load chunks for a beam
+            LevelChunk chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk == null) continue;
+
+            for (int sectionY = minSection; sectionY <= maxSection; sectionY++) {
+                LevelChunkSection section = chunk.getSection(level.getSectionIndexFromSectionY(sectionY));
+                if (section.hasOnlyAir()) continue;
+                snapshot.sections.put(SectionPos.asLong(chunkX, sectionY, chunkZ), section.getStates().copy());
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        PalettedContainer<BlockState> states = sections.get(SectionPos.asLong(
+            SectionPos.blockToSectionCoord(pos.getX()),
+            SectionPos.blockToSectionCoord(pos.getY()),
+            SectionPos.blockToSectionCoord(pos.getZ())
+        ));
+        if (states == null) return AIR;
+        return states.get(pos.getX() & 15, pos.getY() & 15, pos.getZ() & 15);
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        return null;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getMinBuildHeight() {
+        return minBuildHeight;
+    }
+}
@@ -0,0 +1,150 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.material.FluidState;
+import net.minecraft.world.level.material.Fluids;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The chunks of one {@link ServerLevel} beams may fly through: fully loaded and block ticking.
+ * <p>
+ *     Beams only ever look at blocks through this view. A block read on the level itself loads the chunk
+ *     when it isn't there, on the server thread, while this view only takes chunks the chunk source already
+ *     holds ({@code getChunkNow}) and whose ticket level keeps them ticking. Anything else reads as air and
+ *     counts as outside, so a beam can never cause chunk I/O.
+ * </p>
+ * <p>
+ *     Lookups are cached per chunk until {@link #invalidate()}, which {@link BeamManager} calls at the end of
+ *     every level tick, so loaded chunks are never held on to for longer than that.
+ * </p>
+ */
+public final class BeamChunkView implements BlockGetter {
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final ServerLevel level;
+    // null values are chunks beams may not use, cached so they're only looked up once too
+    private final Long2ObjectOpenHashMap<LevelChunk> chunks = new Long2ObjectOpenHashMap<>();
+
+    // the last chunk looked up; block walks read the same chunk many times in a row
+    private long lastKey = Long.MAX_VALUE;
+    private LevelChunk lastChunk;
+
+    public BeamChunkView(ServerLevel level) {
+        this.level = level;
+    }
+
+    /** Forgets every cached chunk, since chunks load, unload and change ticket levels between ticks. */
+    public void invalidate() {
+        chunks.clear();
+        lastKey = Long.MAX_VALUE;
+        lastChunk = null;
+    }
+
+    /** @return the chunk if beams may use it, null if it isn't loaded or isn't ticking */
+    @Nullable
+    public LevelChunk chunk(int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        if (key == lastKey) return lastChunk;
+
+        LevelChunk chunk = chunks.get(key);
+        if (chunk == null && !chunks.containsKey(key)) {
+            // never loads: null unless the chunk is already fully there
+            chunk = level.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk != null && !level.shouldTickBlocksAt(key)) chunk = null;
+            chunks.put(key, chunk);
+        }
+        lastKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    /** @return true if beams may fly through the chunk at the given block position */
+    public boolean isLoaded(double x, double z) {
+        return chunk(SectionPos.blockToSectionCoord(x), SectionPos.blockToSectionCoord(z)) != null;
+    }
+
+    /**
+     * Finds where a horizontal segment first enters a chunk beams may not fly through.
+     * <p>
+     *     Walks the chunks along the segment in order, the same way {@link BeamTrajectory#chunksAlong} does,
+     *     but without a limit on how many, since it stops at the first one outside.
+     * </p>
+     *
+     * @return the fraction of the segment at which it leaves the loaded area, 0 if it starts outside,
+     *         or {@link Double#POSITIVE_INFINITY} if it stays inside all the way
+     */
+    public double clearFraction(double x0, double z0, double x1, double z1) {
+        int cx = SectionPos.blockToSectionCoord(x0);
+        int cz = SectionPos.blockToSectionCoord(z0);
+        int endX = SectionPos.blockToSectionCoord(x1);
+        int endZ = SectionPos.blockToSectionCoord(z1);
+
+        double dx = x1 - x0;
+        double dz = z1 - z0;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+
+        // distance (as a fraction of the segment) to the next chunk border on each axis, and between borders
+        double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : 16.0 / Math.abs(dx);
+        double deltaZ = dz == 0 ? Double.POSITIVE_INFINITY : 16.0 / Math.abs(dz);
+        double nextX = dx == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? (cx + 1) * 16.0 - x0 : x0 - cx * 16.0) / Math.abs(dx));
+        double nextZ = dz == 0 ? Double.POSITIVE_INFINITY : ((stepZ > 0 ? (cz + 1) * 16.0 - z0 : z0 - cz * 16.0) / Math.abs(dz));
+
+        // where the segment entered the chunk being checked
+        double entered = 0.0;
+        while (true) {
+            if (chunk(cx, cz) == null) return entered;
+            if (cx == endX && cz == endZ) return Double.POSITIVE_INFINITY;
+            // guard against rounding walking past the end
+            if (Math.min(nextX, nextZ) > 1.0) return Double.POSITIVE_INFINITY;
+
+            if (nextX < nextZ) {
+                entered = nextX;
+                cx += stepX;
+                nextX += deltaX;
+            } else {
+                entered = nextZ;
+                cz += stepZ;
+                nextZ += deltaZ;
+            }
+        }
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        LevelChunk chunk = chunk(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+        return chunk == null ? AIR : chunk.getBlockState(pos);
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        LevelChunk chunk = chunk(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+        return chunk == null ? Fluids.EMPTY.defaultFluidState() : chunk.getFluidState(pos);
+    }
+
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+        LevelChunk chunk = chunk(SectionPos.blockToSectionCoord(pos.getX()), SectionPos.blockToSectionCoord(pos.getZ()));
+        return chunk == null ? null : chunk.getBlockEntity(pos, LevelChunk.EntityCreationType.CHECK);
+    }
+
+    @Override
+    public int getHeight() {
+        return level.getHeight();
+    }
+
+    @Override
+    public int getMinBuildHeight() {
+        return level.getMinBuildHeight();
+    }
+}
@@ -0,0 +1,50 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.shapes.EntityCollisionContext;
+import net.minecraft.world.phys.shapes.VoxelShape;
+
+/**
+ * The collision context a beam's block tests run with, matching the one a projectile entity's raycast gets
+ * from {@code ClipContext.Block.COLLIDER}.
+ * <p>
+ *     A few blocks pick their collision shape by who asks. Scaffolding only stops something whose bottom is
+ *     above its top, so this context carries the height the beam was at when the tick that reaches the block
+ *     started, like the projectile's own position. Powder snow only stops falling entities and mobs that can
+ *     walk on it; a beam is neither, and with no entity here it reads as empty the same way.
+ * </p>
+ * <p>
+ *     The height changes from block to block, so a context is reused instead of being rebuilt. It also holds
+ *     the position of the block being tested, so a walk along a path needs no objects of its own. Each
+ *     thread that solves paths keeps its own context: {@link BeamManager} one for the server thread, and
+ *     every worker solve one for itself.
+ * </p>
+ */
+public final class BeamCollisionContext extends EntityCollisionContext {
+    // the block being tested, and the height of the beam when the tick that reaches it started
+    private final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    private double bottom;
+
+    public BeamCollisionContext() {
+        // a projectile doesn't sneak, holds nothing and can't stand on fluids
+        super(false, -Double.MAX_VALUE, ItemStack.EMPTY, fluid -> false, null);
+    }
+
+    /** @return the position of the block being tested, moved along by the walk */
+    public BlockPos.MutableBlockPos pos() {
+        return pos;
+    }
+
+    /** Sets the beam's height for the next blocks tested. */
+    public void setBottom(double y) {
+        bottom = y;
+    }
+
+    /** Same test as {@link EntityCollisionContext#isAbove}, against the height set last. */
+    @Override
+    public boolean isAbove(VoxelShape shape, BlockPos pos, boolean defaultValue) {
+        return bottom > pos.getY() + shape.max(Direction.Axis.Y) - 1.0E-5F;
+    }
+}
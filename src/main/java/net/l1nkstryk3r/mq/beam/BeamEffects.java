@@ -0,0 +1,126 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.l1nkstryk3r.mq.network.BeamEffectsPacket;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+
+import java.util.Arrays;
+
+/**
+ * Collects a level's beam effects (impacts and firing sounds) during a tick and sends them at the end of it.
+ * <p>
+ *     Effects of the same kind that land in the same small grid cell in the same tick are merged into one
+ *     cluster at their average position. Each player then receives a single {@link BeamEffectsPacket}
+ *     with the clusters in range, so a beam storm costs one packet per player per tick instead of a
+ *     particle and a sound packet per impact.
+ * </p>
+ */
+public final class BeamEffects {
+    // effects closer than this (in blocks, per axis) are merged
+    private static final double CLUSTER_SIZE = 2.0;
+    // same distance vanilla sends particles over
+    private static final double SEND_RANGE = 32.0;
+
+    private final Long2IntOpenHashMap clusterByCell = new Long2IntOpenHashMap();
+    private double[] sumX = new double[32], sumY = new double[32], sumZ = new double[32];
+    private int[] count = new int[32];
+    private byte[] kind = new byte[32];
+    private int clusters;
+
+    public BeamEffects() {
+        clusterByCell.defaultReturnValue(-1);
+    }
+
+    /**
+     * Records one effect for this tick.
+     *
+     * @param effectKind One of the kinds in {@link BeamEffectsPacket}
+     */
+    public void add(byte effectKind, double x, double y, double z) {
+        long cell = cellKey(effectKind, x, y, z);
+        int cluster = clusterByCell.get(cell);
+
+        if (cluster < 0) {
+            if (clusters == count.length) grow();
+            cluster = clusters++;
+            clusterByCell.put(cell, cluster);
+            kind[cluster] = effectKind;
+            sumX[cluster] = sumY[cluster] = sumZ[cluster] = 0.0;
+            count[cluster] = 0;
+        }
+
+        sumX[cluster] += x;
+        sumY[cluster] += y;
+        sumZ[cluster] += z;
+        count[cluster]++;
+    }
+
+    /**
+     * Sends every player the clusters within range of them, then starts a new tick.
+     *
+     * @return how many packets were sent
+     */
+    public int flush(ServerLevel level) {
+        if (clusters == 0) return 0;
+
+        int sent = 0;
+        double rangeSqr = SEND_RANGE * SEND_RANGE;
+        for (ServerPlayer player : level.players()) {
+            FriendlyByteBuf buf = null;
+            int entries = 0;
+            int countIndex = 0;
+
+            for (int i = 0; i < clusters; i++) {
+                float x = (float) (sumX[i] / count[i]);
+                float y = (float) (sumY[i] / count[i]);
+                float z = (float) (sumZ[i] / count[i]);
+                if (player.distanceToSqr(x, y, z) > rangeSqr) continue;
+
+                if (buf == null) {
+                    buf = PacketByteBufs.create();
+                    // reserve a fixed-size count, patched once we know how many entries made it
+                    countIndex = buf.writerIndex();
+                    buf.writeInt(0);
+                }
+                buf.writeByte(kind[i]);
+                buf.writeFloat(x);
+                buf.writeFloat(y);
+                buf.writeFloat(z);
+                buf.writeVarInt(count[i]);
+                entries++;
+            }
+
+            if (buf != null) {
+                buf.setInt(countIndex, entries);
+                ServerPlayNetworking.send(player, BeamEffectsPacket.ID, buf);
+                sent++;
+            }
+        }
+
+        clusters = 0;
+        clusterByCell.clear();
+        return sent;
+    }
+
+    /** Packs the effect kind and its grid cell into one key. */
+    private static long cellKey(byte effectKind, double x, double y, double z) {
+        long cx = Mth.floor(x / CLUSTER_SIZE) & 0xFFFFF;
+        long cy = Mth.floor(y / CLUSTER_SIZE) & 0x3FFF;
+        long cz = Mth.floor(z / CLUSTER_SIZE) & 0xFFFFF;
+        return (long) effectKind << 54 | cx << 34 | cy << 20 | cz;
+    }
+
+    private void grow() {
+        int capacity = count.length * 2;
+        sumX = Arrays.copyOf(sumX, capacity);
+        sumY = Arrays.copyOf(sumY, capacity);
+        sumZ = Arrays.copyOf(sumZ, capacity);
+        count = Arrays.copyOf(count, capacity);
+        kind = Arrays.copyOf(kind, capacity);
+    }
+}
@@ -0,0 +1,97 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.objects.Object2BooleanOpenHashMap;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.l1nkstryk3r.mq.network.BeamChargePacket;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Whether each player can fire beams, kept in sync with their client.
+ * <p>
+ *     Firing depends only on health and max health ({@link #canFire}). Instead of checking every tick, the
+ *     state is looked at again when either changes: health through {@code LivingEntityMixin}, max health
+ *     through {@code ServerEntityMixin} when the player's attributes are synced. A {@link BeamChargePacket}
+ *     is sent only when the state actually flips, plus once on join and respawn.
+ * </p>
+ * <p>
+ *     The client uses the state to drop right-clicks that wouldn't fire before they become use-item
+ *     packets, and to show the swords it holds as charged. The server still checks for itself in
+ *     {@code MasterSword.use}, so a stale client state can't fire anything.
+ * </p>
+ */
+public final class BeamEligibility {
+    // state last sent to each player's client
+    private static final Object2BooleanOpenHashMap<UUID> SENT = new Object2BooleanOpenHashMap<>();
+
+    // set by the client initializer, whether a stack is held by the local player while charged
+    private static Predicate<ItemStack> clientCharged = stack -> false;
+
+    private BeamEligibility() {}
+
+    /**
+     * Registers the join, respawn and disconnect hooks.
+     * Called once from the mod initializer.
+     */
+    public static void initialize() {
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> send(handler.player, canFire(handler.player)));
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> send(newPlayer, canFire(newPlayer)));
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> SENT.removeBoolean(handler.player.getUUID()));
+    }
+
+    /**
+     * The health gate for firing, checked by the server and, for prediction, the shooter's client.
+     * <p>
+     *     Player must be almost or fully healed.
+     * </p>
+     */
+    public static boolean canFire(Player player) {
+        // NOTE: this value was adjusted so that it still fires when you appear to be at max health (in the hotbar)
+        //       despite maybe not being at exactly your max health.
+        return player.getHealth() >= (player.getMaxHealth() - 1.0f);
+    }
+
+    /**
+     * Looks at a player's state again after their health or max health changed,
+     * and tells their client if it flipped.
+     */
+    public static void update(ServerPlayer player) {
+        // still loading, the state is sent on join; fake players have no client to tell
+        if (player.connection == null || player instanceof FakePlayer) return;
+
+        UUID id = player.getUUID();
+        boolean charged = canFire(player);
+        if (SENT.containsKey(id) && SENT.getBoolean(id) == charged) return;
+        send(player, charged);
+    }
+
+    private static void send(ServerPlayer player, boolean charged) {
+        SENT.put(player.getUUID(), charged);
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        new BeamChargePacket(charged).write(buf);
+        ServerPlayNetworking.send(player, BeamChargePacket.ID, buf);
+    }
+
+    /** Lets the client side report the local player's state to common code, see {@link #isClientCharged}. */
+    public static void setClientCharged(Predicate<ItemStack> charged) {
+        clientCharged = charged;
+    }
+
+    /**
+     * Client only: whether the local player holds this stack and can fire, as last told by the server.
+     * Swords anywhere else (other players' hands, item frames, the inventory) are never charged.
+     * Always false on a dedicated server.
+     */
+    public static boolean isClientCharged(ItemStack stack) {
+        return clientCharged.test(stack);
+    }
+}
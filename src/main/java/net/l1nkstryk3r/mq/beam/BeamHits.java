@@ -0,0 +1,76 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.l1nkstryk3r.mq.entity.MasterSwordBeamEntity;
+import net.l1nkstryk3r.mq.network.BeamEffectsPacket;
+import net.l1nkstryk3r.mq.trace.BeamTraceRecorder;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The hit rules for the Master Sword beam.
+ * <p>
+ *     Both the pooled {@link BeamManager} and the entity-based
+ *     {@link MasterSwordBeamEntity} resolve their hits through here,
+ *     so the two firing modes always behave the same way.
+ * </p>
+ */
+public final class BeamHits {
+    private BeamHits() {}
+
+    /**
+     * Applies an entity hit at the beam's current position.
+     * <p>
+     *     The beam keeps flying after an entity hit until it has pierced its {@code maxPierce} entities.
+     *     Callers remember which entities a beam already hit and don't pass them here again.
+     * </p>
+     * <p>
+     *     Only living targets hit by a player's beam are damaged. The shooter and anything else are passed
+     *     through without using up pierce, so callers only count a hit when this returns true.
+     * </p>
+     *
+     * @param level The level the beam lives in
+     * @param owner The player (or other entity) that fired the beam, if still loaded
+     * @param target The entity the beam ran into
+     * @param x Beam position
+     * @param y Beam position
+     * @param z Beam position
+     * @return whether the hit was applied
+     */
+    public static boolean hitEntity(ServerLevel level, @Nullable Entity owner, Entity target, double x, double y, double z) {
+        // Prevent self-hits (ignore hitting the shooter)
+        if (target == owner) return false;
+
+        if (target instanceof LivingEntity livingTarget && owner instanceof Player playerOwner) {
+            BeamManager manager = BeamManager.get(level);
+            long start = manager.stats().startTimer();
+
+            // Deal direct damage
+            livingTarget.hurt(manager.damageSource(playerOwner), manager.tuning().damage);
+
+            // glow burst and impact chime, merged with nearby impacts and sent at the end of the tick
+            manager.effects().add(BeamEffectsPacket.ENTITY_IMPACT, x, y, z);
+            manager.stats().recordEntityHit(start, target, x, y, z);
+            BeamTraceRecorder.recordHit(level, false, x, y, z);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies a block hit at the beam's current position.
+     * <p>
+     *     Callers are responsible for removing the beam afterwards.
+     * </p>
+     */
+    public static void hitBlock(ServerLevel level, double x, double y, double z) {
+        BeamManager manager = BeamManager.get(level);
+        long start = manager.stats().startTimer();
+
+        manager.effects().add(BeamEffectsPacket.BLOCK_IMPACT, x, y, z);
+        manager.stats().recordBlockHit(start, x, y, z);
+        BeamTraceRecorder.recordHit(level, true, x, y, z);
+    }
+}
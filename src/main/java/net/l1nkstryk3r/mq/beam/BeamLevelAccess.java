@@ -0,0 +1,13 @@
+package net.l1nkstryk3r.mq.beam;
+
+/**
+ * Duck interface mixed into {@link net.minecraft.server.level.ServerLevel}.
+ * <p>
+ *     Lets each level own its {@link BeamManager} directly as a field, so looking it up
+ *     costs a cast instead of a map lookup.
+ * </p>
+ */
+public interface BeamLevelAccess {
+    /** @return this level's beam manager, created on first use */
+    BeamManager mq$getBeamManager();
+}
@@ -0,0 +1,831 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.ints.IntArraySet;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.l1nkstryk3r.mq.entity.MasterSwordBeamEntity;
+import net.l1nkstryk3r.mq.network.BeamEndPacket;
+import net.l1nkstryk3r.mq.network.BeamSpawnPacket;
+import net.l1nkstryk3r.mq.network.BeamVolleyPacket;
+import net.l1nkstryk3r.mq.network.ModPackets;
+import net.l1nkstryk3r.mq.stats.BeamStats;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.util.profiling.ProfilerFiller;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Simulates every Master Sword beam in one {@link ServerLevel}.
+ * <p>
+ *     Instead of spawning a {@link MasterSwordBeamEntity} per shot, beams are stored as rows in a
+ *     {@link BeamStore} and all of them are stepped in a single pass at the end of each level tick.
+ *     This keeps beams out of the entity list and entity tracker entirely.
+ * </p>
+ * <p>
+ *     Clients are told about a beam exactly once when it is fired ({@link BeamSpawnPacket}) and simulate
+ *     the rest of the flight themselves. A {@link BeamEndPacket} follows only if the beam stops early.
+ * </p>
+ * <p>
+ *     The step mirrors what {@link net.minecraft.world.entity.projectile.ThrowableProjectile} does
+ *     for the entity, so lifetime, drag and hit rules match the entity path:
+ *     <ol>
+ *         <li>find the first thing along this tick's motion (entity before block). The block a beam will
+ *             hit is solved once when it is fired ({@link BeamTrajectory}) and only solved again when a block
+ *             changes in a chunk along its path. With {@code asyncBeamPaths} on, the first solve runs on
+ *             {@link BeamPathSolver}'s workers against a {@link BeamBlockSnapshot} taken at fire time, and is
+ *             joined when the beam is first stepped. Entities come from a per-tick
+ *             {@link BeamSpatialHash} of living entities instead of a per-beam entity section scan</li>
+ *         <li>resolve the hit through {@link BeamHits}. A beam pierces up to {@code maxPierce} entities,
+ *             all of them in the same tick if they are along the same motion, and never hits the same
+ *             entity twice: the entities it already hit are skipped before the narrow phase</li>
+ *         <li>move and apply air drag</li>
+ *         <li>despawn once older than the lifetime it was fired with</li>
+ *     </ol>
+ * </p>
+ * <p>
+ *     Beams stay inside loaded, ticking chunks. Every block a beam tests is read through the level's
+ *     {@link BeamChunkView}, which never loads a chunk, and when a beam is fired its whole path is checked
+ *     against that view once: a beam whose path leaves the loaded area despawns at the border, after hitting
+ *     whatever it meets up to there, instead of testing blocks or entities past it.
+ * </p>
+ * <p>
+ *     Simulation level of detail: a beam farther than {@code lodDistance} from every living entity can't hit
+ *     anything, and its clients simulate it on their own, so it is only stepped every {@code lodIntervalTicks}
+ *     ticks. That step covers every tick it waited with one longer swept segment, along the same straight line
+ *     and with the same drag, so the path and any hit are the same as when stepping each tick. A beam goes back
+ *     to full rate on the first tick anything is in range, and is always stepped on the tick it expires.
+ * </p>
+ * <p>
+ *     Speed, lifetime, damage and sync range come from the level's {@link BeamTuning}, see {@link #tuning()}.
+ * </p>
+ */
+public final class BeamManager {
+    /**
+     * Compatibility mode: spawn real {@link MasterSwordBeamEntity} beams instead of using this engine.
+     * <p>
+     *     Enable with {@code -Dl1nks-master-quest.entityBeams=true}, e.g. for other mods that expect
+     *     the beam to be an entity.
+     * </p>
+     */
+    public static final boolean ENTITY_COMPAT_MODE = Boolean.getBoolean(L1nksMasterQuest.MOD_ID + ".entityBeams");
+
+    // === beam constants (match the entity registration and MasterSword.use) ===
+    public static final double EYE_OFFSET = 0.1;
+    public static final double AIR_DRAG = 0.99;
+    // how much target boxes are grown for hit tests, same as ProjectileUtil
+    public static final double HIT_MARGIN = 0.3;
+    // most paths cross 1-3 chunks; longer ones (e.g. fired while flying fast) fall back to per-tick raycasts
+    private static final int MAX_PATH_CHUNKS = 6;
+
+    // profiler section the whole beam tick runs in
+    private static final String PROFILER_SECTION = "l1nks_master_quest_beams";
+
+    private final ServerLevel level;
+    private final BeamStore store = new BeamStore();
+    private final BeamAdmission admission = new BeamAdmission();
+    private final BeamEffects effects = new BeamEffects();
+    private final BeamTracking tracking = new BeamTracking();
+    private final BeamStats stats;
+    private final BeamChunkView chunkView;
+
+    // this level's tuning, looked up again only when the config was reloaded
+    private ModConfig tuningSource;
+    private BeamTuning tuning;
+
+    // === extra per-slot state, grown alongside the store ===
+    // admission region each pooled beam was counted in
+    private long[] regionBySlot = new long[store.capacity()];
+    // distance flown so far, and distance along the path where the precomputed block hit is
+    private double[] travelled = new double[store.capacity()];
+    private double[] blockHitAt = new double[store.capacity()];
+    // distance along the path at which the beam leaves the loaded chunks, NO_HIT if it never does
+    private double[] boundaryAt = new double[store.capacity()];
+    // chunks the path crosses up to its block hit, with their block-change version when it was solved.
+    // a count of -1 means the path crosses too many chunks and is raycast every tick instead.
+    private int[] pathChunkCount = new int[store.capacity()];
+    private long[] pathChunks = new long[store.capacity() * MAX_PATH_CHUNKS];
+    private int[] pathVersions = new int[store.capacity() * MAX_PATH_CHUNKS];
+    // entities each beam may still pass through, and the ids of those it already hit.
+    // hit sets are only taken from the pool on a beam's first hit, and given back when it is removed
+    private int[] pierceLeft = new int[store.capacity()];
+    private IntArraySet[] hitSets = new IntArraySet[store.capacity()];
+    private final ArrayDeque<IntArraySet> hitSetPool = new ArrayDeque<>();
+    // ticks since each beam was last stepped, more than 1 while it is far from everything
+    private int[] waitedTicks = new int[store.capacity()];
+    // range the early end packet is sent over, from the tuning the beam was fired with. A reload that
+    // shrinks the range must not leave clients sent the spawn simulating a beam that already stopped
+    private double[] endRanges = new double[store.capacity()];
+    // the entity that fired each beam. Held directly rather than looked up by id every step, since a shooter
+    // need not be in the level's entity lookup at all (fake players from other mods, traces, the beam storm)
+    private Entity[] owners = new Entity[store.capacity()];
+    // worker solves started at fire time and not joined yet
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Double>[] pendingSolves = new CompletableFuture[store.capacity()];
+
+    // block-change counter per chunk, only counted while beams are alive
+    private final Long2IntOpenHashMap chunkVersions = new Long2IntOpenHashMap();
+
+    // === server thread scratch, so firing and stepping a beam allocate nothing ===
+    // block tests of path solves and raycasts, see BeamTrajectory.solveBlockHit
+    private final BeamCollisionContext blockContext = new BeamCollisionContext();
+    // velocity of the beam being fired, see BeamMotion.aim
+    private final double[] aim = new double[3];
+    // players a packet goes to. Packets are only encoded once there is one, beams nobody sees cost no buffer
+    private final List<ServerPlayer> recipients = new ArrayList<>();
+
+    // === hit broad phase, rebuilt once per tick while beams are alive ===
+    private final BeamSpatialHash hitGrid = new BeamSpatialHash();
+    private LivingEntity[] gridEntities = new LivingEntity[64];
+    private int gridSize;
+    // columns of lodDistance-sized cells with a living entity in them, for the level of detail check
+    private final LongOpenHashSet lodCells = new LongOpenHashSet();
+    private double lodCellSize;
+    // owner and hit set of the beam currently being stepped, read by the grid filter
+    private Entity stepOwner;
+    private IntArraySet stepHits;
+    private final BeamSpatialHash.Filter hitFilter = index -> {
+        LivingEntity target = gridEntities[index];
+        if (stepHits != null && stepHits.contains(target.getId())) return false;
+        return target != stepOwner && canHit(stepOwner, target);
+    };
+
+    // damage sources are immutable, so the last one is reused for as long as the same player keeps hitting
+    private Player damageOwner;
+    private DamageSource damageSource;
+
+    public BeamManager(ServerLevel level) {
+        this.level = level;
+        this.stats = new BeamStats(level);
+        this.chunkView = new BeamChunkView(level);
+    }
+
+    /** @return the beam manager owned by the given level */
+    public static BeamManager get(ServerLevel level) {
+        return ((BeamLevelAccess) level).mq$getBeamManager();
+    }
+
+    /**
+     * Hooks the beam step into the server tick, and drops a level's beams when it unloads.
+     * Called once from the mod initializer.
+     */
+    public static void initialize() {
+        L1nksMasterQuest.LOGGER.info("Initializing BeamManager for {} (entity compat mode: {})", L1nksMasterQuest.MOD_ID, ENTITY_COMPAT_MODE);
+        ServerTickEvents.END_WORLD_TICK.register(level -> get(level).tick());
+        ServerWorldEvents.UNLOAD.register((server, level) -> get(level).clear());
+
+        // entity beams (compatibility mode) give back their admission when they leave the level for any reason
+        ServerEntityEvents.ENTITY_UNLOAD.register((entity, level) -> {
+            if (entity instanceof MasterSwordBeamEntity beam) beam.releaseAdmission(get(level).admission());
+        });
+    }
+
+    /**
+     * Fires a beam from the player's eyes in the direction they are looking.
+     * <p>
+     *     Uses the same aim math as {@code shootFromRotation}, see {@link BeamMotion#aim}.
+     * </p>
+     * <p>
+     *     The shot is checked against {@link BeamAdmission} first; a refused shot costs nothing else.
+     * </p>
+     *
+     * @param prediction Sequence id of the shooter's predicted beam, or 0 if their client didn't predict
+     *                   this shot, see {@link BeamPredictions}
+     * @return {@link BeamAdmission.Result#ADMITTED} if the beam was fired, otherwise why it wasn't
+     */
+    public BeamAdmission.Result fire(Player player, int prediction) {
+        BeamTuning tuning = tuning();
+        double x = player.getX();
+        double y = player.getEyeY() - EYE_OFFSET;
+        double z = player.getZ();
+        long region = BeamAdmission.regionOf(x, z);
+
+        BeamAdmission.Result result = admission.tryAdmit(player.getId(), region);
+        if (result != BeamAdmission.Result.ADMITTED) return result;
+
+        BeamMotion.aim(player, tuning.speed, aim);
+        double vx = aim[0], vy = aim[1], vz = aim[2];
+        int slot = launch(x, y, z, vx, vy, vz, player, region, tuning);
+
+        // tell clients near the path once, they simulate the rest of the flight. The block hit may still be
+        // solving, so the whole lifetime's path is checked
+        double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        double length = BeamTrajectory.remainingLength(speed, 0, tuning.lifetimeTicks);
+        if (ModPackets.collectViewers(level, tracking,
+                x, y, z, vx / speed, vy / speed, vz / speed, length, tuning.syncRange, recipients) > 0) {
+            BeamSpawnPacket packet = new BeamSpawnPacket(
+                store.id[slot], player.getId(), level.getGameTime(),
+                x, y, z,
+                (float) (vx / speed), (float) (vy / speed), (float) (vz / speed),
+                (float) speed,
+                tuning.lifetimeTicks,
+                prediction
+            );
+            FriendlyByteBuf buf = PacketByteBufs.create();
+            packet.write(buf);
+            recordPackets(ModPackets.send(recipients, BeamSpawnPacket.ID, buf));
+        }
+        stats.recordSpawn(player.getId(), x, y, z, false);
+
+        return result;
+    }
+
+    /**
+     * Fires a volley: {@code volleyRays} beams fanned out sideways around where the player is looking.
+     * <p>
+     *     Every ray is a normal pooled beam with its own hit state (path, pierce, hit set), so each one
+     *     resolves its hits exactly like a single beam. What the volley shares is everything around that:
+     *     one admission check for all rays, and a single {@link BeamVolleyPacket} that clients rebuild
+     *     every ray from.
+     * </p>
+     *
+     * @return {@link BeamAdmission.Result#ADMITTED} if the volley was fired, otherwise why it wasn't
+     */
+    public BeamAdmission.Result fireVolley(Player player) {
+        BeamTuning tuning = tuning();
+        double x = player.getX();
+        double y = player.getEyeY() - EYE_OFFSET;
+        double z = player.getZ();
+        long region = BeamAdmission.regionOf(x, z);
+        int rays = tuning.volleyRays;
+
+        BeamAdmission.Result result = admission.tryAdmit(player.getId(), region, rays);
+        if (result != BeamAdmission.Result.ADMITTED) return result;
+
+        // rounded to what the packet carries, so clients compute bit-identical rays
+        Vec3 shooterMotion = player.getDeltaMovement();
+        float motionX = (float) shooterMotion.x;
+        float motionY = player.onGround() ? 0.0f : (float) shooterMotion.y;
+        float motionZ = (float) shooterMotion.z;
+
+        // slots hand out consecutive ids, so clients can number the rays from the first one
+        int firstId = -1;
+        for (int ray = 0; ray < rays; ray++) {
+            float yRot = player.getYRot() + BeamMotion.volleyYawOffset(ray, rays, tuning.volleySpread);
+            BeamMotion.aim(player.getXRot(), yRot, motionX, motionY, motionZ, tuning.speed, aim);
+            int slot = launch(x, y, z, aim[0], aim[1], aim[2], player, region, tuning);
+            if (ray == 0) firstId = store.id[slot];
+            stats.recordSpawn(player.getId(), x, y, z, false);
+        }
+
+        // checked against where the player looks (the middle ray without the inherited motion),
+        // with the range widened by how far the outer rays fan out
+        BeamMotion.aim(player.getXRot(), player.getYRot(), 0.0, 0.0, 0.0, 1.0, aim);
+        double length = BeamTrajectory.remainingLength(tuning.speed, 0, tuning.lifetimeTicks);
+        double fan = length * Math.tan(BeamMotion.volleyYawOffset(rays - 1, rays, tuning.volleySpread) * Mth.DEG_TO_RAD);
+        if (ModPackets.collectViewers(level, tracking,
+                x, y, z, aim[0], aim[1], aim[2], length, tuning.syncRange + fan, recipients) > 0) {
+            BeamVolleyPacket packet = new BeamVolleyPacket(
+                firstId, player.getId(), level.getGameTime(),
+                x, y, z,
+                player.getXRot(), player.getYRot(),
+                motionX, motionY, motionZ,
+                tuning.speed,
+                tuning.lifetimeTicks,
+                rays,
+                tuning.volleySpread
+            );
+            FriendlyByteBuf buf = PacketByteBufs.create();
+            packet.write(buf);
+            recordPackets(ModPackets.send(recipients, BeamVolleyPacket.ID, buf));
+        }
+
+        return result;
+    }
+
+    /**
+     * Puts an admitted beam into the store and starts solving its path.
+     *
+     * @return the beam's slot
+     */
+    private int launch(double x, double y, double z, double vx, double vy, double vz, Entity owner, long region, BeamTuning tuning) {
+        int slot = store.allocate(x, y, z, vx, vy, vz, owner.getId(), tuning.lifetimeTicks);
+        ensureSlotCapacity();
+        owners[slot] = owner;
+        regionBySlot[slot] = region;
+        travelled[slot] = 0.0;
+        pierceLeft[slot] = tuning.maxPierce;
+        waitedTicks[slot] = 0;
+        endRanges[slot] = tuning.endSyncRange;
+
+        // check the whole path against the loaded chunks once, everything after only looks up to the border
+        double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        double length = BeamTrajectory.remainingLength(speed, 0, tuning.lifetimeTicks);
+        double clear = speed < 1.0E-7
+            ? (chunkView.isLoaded(x, z) ? Double.POSITIVE_INFINITY : 0.0)
+            : chunkView.clearFraction(x, z, x + vx / speed * length, z + vz / speed * length);
+        boundaryAt[slot] = clear > 1.0 ? BeamTrajectory.NO_HIT : clear * length;
+
+        // find the block this beam will run into once, up front, on a worker if possible
+        if (!solvePathAsync(slot)) solvePath(slot, 0);
+        return slot;
+    }
+
+    /** @return the live beam counts and caps of this level, shared with entity beams */
+    public BeamAdmission admission() {
+        return admission;
+    }
+
+    /** @return this level's impact and firing effects, sent once at the end of each tick */
+    public BeamEffects effects() {
+        return effects;
+    }
+
+    /**
+     * The tuning values for beams fired in this level.
+     * <p>
+     *     Costs one volatile read while the config is unchanged; the level's profile is only
+     *     looked up again after {@code /mq reload} swapped in a new config.
+     * </p>
+     */
+    public BeamTuning tuning() {
+        ModConfig config = ModConfig.get();
+        if (config != tuningSource) {
+            tuning = config.tuning(level.dimension());
+            tuningSource = config;
+        }
+        return tuning;
+    }
+
+    /** @return who gets sent this level's beams, shared with entity beams */
+    public BeamTracking tracking() {
+        return tracking;
+    }
+
+    /** @return the damage source for a beam fired by the given player */
+    public DamageSource damageSource(Player owner) {
+        if (owner != damageOwner) {
+            damageSource = level.damageSources().playerAttack(owner);
+            damageOwner = owner;
+        }
+        return damageSource;
+    }
+
+    /** @return the chunks beams may fly through in this level, shared with entity beams */
+    public BeamChunkView chunkView() {
+        return chunkView;
+    }
+
+    /** @return this level's beam counters and timings */
+    public BeamStats stats() {
+        return stats;
+    }
+
+    /** @return the number of beams currently alive in this level */
+    public int liveCount() {
+        return store.size();
+    }
+
+    /**
+     * Steps every live beam once, then sends the tick's effects.
+     * <p>
+     *     Runs inside a {@value #PROFILER_SECTION} profiler section, with sub-sections for each phase,
+     *     so the beam cost shows up in vanilla {@code /debug} reports and profilers built on them.
+     * </p>
+     */
+    public void tick() {
+        long start = stats.startTimer();
+        ProfilerFiller profiler = level.getProfiler();
+        profiler.push(PROFILER_SECTION);
+
+        admission.updateLoad(level.getServer().getAverageTickTime());
+        tracking.updateLoad(level.players().size());
+        if (store.size() > 0) stepAll(profiler);
+
+        // entity beams and firing also add effects, so this runs even without pooled beams
+        profiler.push("effects");
+        stats.recordPackets(effects.flush(level));
+        profiler.pop();
+
+        profiler.pop();
+
+        // chunks may load, unload or stop ticking before the next tick
+        chunkView.invalidate();
+
+        // don't keep a player that left alive through the cached damage source
+        if (damageOwner != null && damageOwner.isRemoved()) {
+            damageOwner = null;
+            damageSource = null;
+        }
+        stats.recordTick(start);
+    }
+
+    private void stepAll(ProfilerFiller profiler) {
+        BeamTuning tuning = tuning();
+        boolean lod = tuning.lodIntervalTicks > 1;
+
+        profiler.push("hit_grid");
+        buildHitGrid(lod ? tuning.lodDistance : 0.0);
+        profiler.popPush("step");
+
+        // walk backwards so released slots swapped into place have already been stepped
+        for (int i = store.size() - 1; i >= 0; i--) {
+            int slot = store.activeSlot(i);
+            store.age[slot]++;
+
+            // far from everything: wait, and cover the skipped ticks in one step later
+            int ticks = ++waitedTicks[slot];
+            if (lod && ticks < tuning.lodIntervalTicks && store.age[slot] <= store.lifetime[slot] && isFar(slot, tuning)) {
+                stats.recordLodSkip();
+                continue;
+            }
+            waitedTicks[slot] = 0;
+
+            if (!step(slot, ticks)) {
+                remove(slot);
+            } else if (store.age[slot] > store.lifetime[slot]) {
+                stats.recordExpired();
+                remove(slot);
+            }
+        }
+        profiler.pop();
+
+        // don't keep entities alive through the grid between ticks
+        Arrays.fill(gridEntities, 0, gridSize, null);
+        stepOwner = null;
+        stepHits = null;
+
+        // versions only matter relative to live beams, start over once they're all gone
+        if (store.size() == 0) chunkVersions.clear();
+    }
+
+    /**
+     * Records that a block changed in a chunk, invalidating precomputed paths through it.
+     * Called from {@code LevelChunkMixin}.
+     */
+    public void onBlockChanged(int chunkX, int chunkZ) {
+        if (store.size() > 0) chunkVersions.addTo(ChunkPos.asLong(chunkX, chunkZ), 1);
+    }
+
+    /**
+     * Files every hittable living entity's bounding box into the broad phase grid.
+     * <p>
+     *     Boxes are inflated by the same margin {@code ProjectileUtil} uses for projectile hits.
+     * </p>
+     *
+     * @param lodDistance Size of the level of detail cells every living entity is also marked in,
+     *                    0 if the level of detail is off
+     */
+    private void buildHitGrid(double lodDistance) {
+        hitGrid.clear();
+        gridSize = 0;
+        lodCells.clear();
+        lodCellSize = lodDistance;
+
+        for (Entity entity : level.getAllEntities()) {
+            if (!(entity instanceof LivingEntity living)) continue;
+            // spectating players count too, anyone nearby keeps beams at full rate
+            if (lodDistance > 0.0) lodCells.add(ChunkPos.asLong(lodCell(living.getX()), lodCell(living.getZ())));
+            if (living.isSpectator() || !living.isAlive() || !living.isPickable()) continue;
+
+            AABB box = living.getBoundingBox();
+            int index = hitGrid.add(
+                box.minX - HIT_MARGIN, box.minY - HIT_MARGIN, box.minZ - HIT_MARGIN,
+                box.maxX + HIT_MARGIN, box.maxY + HIT_MARGIN, box.maxZ + HIT_MARGIN
+            );
+            if (index == gridEntities.length) gridEntities = Arrays.copyOf(gridEntities, index * 2);
+            gridEntities[index] = living;
+            gridSize++;
+        }
+    }
+
+    /**
+     * Checks whether nothing is near enough to a beam for it to matter when exactly it is stepped.
+     * <p>
+     *     Looks at the beam's level of detail cell and the 8 around it, which covers everything within
+     *     {@code lodDistance} horizontally (and some things farther). Beams fast enough to fly more than half
+     *     that far while waiting are never considered far, so a waiting beam never gets close to anything
+     *     before its next check without being stepped.
+     * </p>
+     */
+    private boolean isFar(int slot, BeamTuning tuning) {
+        double vx = store.vx[slot], vy = store.vy[slot], vz = store.vz[slot];
+        double reach = Math.sqrt(vx * vx + vy * vy + vz * vz) * tuning.lodIntervalTicks;
+        if (reach * 2.0 > lodCellSize) return false;
+
+        int cellX = lodCell(store.x[slot]);
+        int cellZ = lodCell(store.z[slot]);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (lodCells.contains(ChunkPos.asLong(cellX + dx, cellZ + dz))) return false;
+            }
+        }
+        return true;
+    }
+
+    private int lodCell(double coord) {
+        return Mth.floor(coord / lodCellSize);
+    }
+
+    /**
+     * Removes every live pooled beam when the level unloads: their worker solves are cancelled and their
+     * admission counts given back. Entity beams give theirs back on their own as their entities unload.
+     */
+    private void clear() {
+        for (int i = store.size() - 1; i >= 0; i--) {
+            remove(store.activeSlot(i));
+        }
+        chunkVersions.clear();
+        damageOwner = null;
+        damageSource = null;
+    }
+
+    /** Frees a beam's slot and its admission counts. */
+    private void remove(int slot) {
+        if (pendingSolves[slot] != null) {
+            pendingSolves[slot].cancel(false);
+            pendingSolves[slot] = null;
+        }
+        if (hitSets[slot] != null) {
+            hitSets[slot].clear();
+            hitSetPool.push(hitSets[slot]);
+            hitSets[slot] = null;
+        }
+        admission.release(store.owner[slot], regionBySlot[slot]);
+        // don't keep the shooter alive through a free slot
+        owners[slot] = null;
+        store.release(slot);
+    }
+
+    /**
+     * Runs hit detection and motion for a single beam.
+     *
+     * @param ticks How many ticks of motion to cover, more than 1 for a beam that waited while far
+     *              from everything. The beam flies straight, so they are swept as one segment.
+     * @return false if the beam should be removed
+     */
+    private boolean step(int slot, int ticks) {
+        double x = store.x[slot], y = store.y[slot], z = store.z[slot];
+        double vx = store.vx[slot], vy = store.vy[slot], vz = store.vz[slot];
+        double startSpeed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        // ticks the beam had already moved before this step
+        int stepsTaken = store.age[slot] - ticks;
+
+        // this step's ticks of motion, the beam only moves once nothing stopped it along them
+        double segment = store.sweep(slot, ticks, AIR_DRAG);
+        double moveX = store.sweepX, moveY = store.sweepY, moveZ = store.sweepZ;
+
+        // the path leaves the loaded chunks during this step: go no further than the border
+        boolean leavesLoaded = travelled[slot] + segment >= boundaryAt[slot];
+        double reach = 1.0;
+        if (leavesLoaded) reach = segment > 0.0 ? Mth.clamp((boundaryAt[slot] - travelled[slot]) / segment, 0.0, 1.0) : 0.0;
+        double endX = x + moveX * reach, endY = y + moveY * reach, endZ = z + moveZ * reach;
+        boolean blockHit;
+
+        if (pendingSolves[slot] != null) joinSolve(slot, stepsTaken);
+
+        if (pathChunkCount[slot] < 0) {
+            // path too long to track, raycast this step's motion like a normal projectile
+            double hit = segment < 1.0E-7 ? BeamTrajectory.NO_HIT : BeamTrajectory.solveBlockHit(chunkView, blockContext,
+                x, y, z, moveX / segment, moveY / segment, moveZ / segment, startSpeed, segment * reach);
+            blockHit = hit != BeamTrajectory.NO_HIT;
+            if (blockHit) {
+                endX = x + moveX / segment * hit;
+                endY = y + moveY / segment * hit;
+                endZ = z + moveZ / segment * hit;
+            }
+        } else {
+            // blocks along the path changed since it was solved, solve the rest of it again
+            if (pathChanged(slot)) solvePath(slot, stepsTaken);
+
+            // solves stop at the border, so a block hit is never past it
+            blockHit = travelled[slot] + segment >= blockHitAt[slot];
+            if (blockHit) {
+                double fraction = Mth.clamp((blockHitAt[slot] - travelled[slot]) / segment, 0.0, 1.0);
+                endX = x + moveX * fraction;
+                endY = y + moveY * fraction;
+                endZ = z + moveZ * fraction;
+            }
+        }
+
+        // blocks limit how far along the motion an entity can be hit.
+        // broad phase: only entities filed in the grid cells this segment crosses are tested,
+        // and entities this beam already hit are skipped before the narrow phase
+        Entity owner = owner(slot);
+        stepOwner = owner;
+        stepHits = hitSets[slot];
+
+        int hitIndex;
+        while ((hitIndex = hitGrid.queryNearest(x, y, z, endX, endY, endZ, hitFilter)) >= 0) {
+            LivingEntity target = gridEntities[hitIndex];
+            boolean applied = BeamHits.hitEntity(level, owner, target, x, y, z);
+
+            // remembered either way, or the query would keep returning it
+            if (stepHits == null) stepHits = hitSets[slot] = takeHitSet();
+            stepHits.add(target.getId());
+
+            // pierced as many entities as it may, this one stops it
+            if (applied && pierceLeft[slot]-- == 0) {
+                sendEnd(slot);
+                return false;
+            }
+        }
+
+        if (blockHit) {
+            BeamHits.hitBlock(level, x, y, z);
+            sendEnd(slot);
+            return false;
+        }
+        if (leavesLoaded) {
+            stats.recordBoundaryExit();
+            L1nksMasterQuest.LOGGER.debug("Beam {} in {} left the loaded chunks at {}, {}, {}",
+                store.id[slot], level.dimension().location(), endX, endY, endZ);
+            sendEnd(slot);
+            return false;
+        }
+
+        // move; the swept velocity already lost this step's air drag, like any thrown projectile
+        store.commitSweep(slot);
+        travelled[slot] += segment;
+        return true;
+    }
+
+    /**
+     * Finds where the rest of a beam's path first hits a block, and remembers which chunks that depends on.
+     *
+     * @param stepsTaken How many ticks the beam has already moved
+     */
+    private void solvePath(int slot, int stepsTaken) {
+        double x = store.x[slot], y = store.y[slot], z = store.z[slot];
+        double vx = store.vx[slot], vy = store.vy[slot], vz = store.vz[slot];
+        double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        if (speed < 1.0E-7) {
+            blockHitAt[slot] = BeamTrajectory.NO_HIT;
+            pathChunkCount[slot] = 0;
+            return;
+        }
+
+        double dirX = vx / speed, dirY = vy / speed, dirZ = vz / speed;
+        double length = Math.max(Math.min(BeamTrajectory.remainingLength(speed, stepsTaken, store.lifetime[slot]),
+            boundaryAt[slot] - travelled[slot]), 0.0);
+        double hit = BeamTrajectory.solveBlockHit(chunkView, blockContext, x, y, z, dirX, dirY, dirZ, speed, length);
+        blockHitAt[slot] = travelled[slot] + hit;
+
+        // only blocks up to the hit can change the outcome
+        double watched = Math.min(hit, length);
+        int base = slot * MAX_PATH_CHUNKS;
+        int count = BeamTrajectory.chunksAlong(x, z, x + dirX * watched, z + dirZ * watched, pathChunks, base, MAX_PATH_CHUNKS);
+        pathChunkCount[slot] = count;
+        for (int i = 0; i < count; i++) {
+            pathVersions[base + i] = chunkVersions.get(pathChunks[base + i]);
+        }
+    }
+
+    /**
+     * Starts solving a freshly fired beam's path on {@link BeamPathSolver}'s workers.
+     * <p>
+     *     The chunks along the whole path are watched, not just those up to the hit, since the hit isn't
+     *     known yet. A block changing in one of them before the beam moves is caught by the usual
+     *     {@link #pathChanged} check right after the result is joined.
+     * </p>
+     *
+     * @return false if the path has to be solved on the server thread instead
+     */
+    private boolean solvePathAsync(int slot) {
+        if (!ModConfig.get().asyncBeamPaths) return false;
+
+        double x = store.x[slot], y = store.y[slot], z = store.z[slot];
+        double vx = store.vx[slot], vy = store.vy[slot], vz = store.vz[slot];
+        double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+        if (speed < 1.0E-7) return false;
+
+        double dirX = vx / speed, dirY = vy / speed, dirZ = vz / speed;
+        double length = Math.min(BeamTrajectory.remainingLength(speed, 0, store.lifetime[slot]), boundaryAt[slot]);
+        double endY = y + dirY * length;
+        int base = slot * MAX_PATH_CHUNKS;
+        int count = BeamTrajectory.chunksAlong(x, z, x + dirX * length, z + dirZ * length, pathChunks, base, MAX_PATH_CHUNKS);
+        if (count < 0) return false;
+
+        BeamBlockSnapshot snapshot = BeamBlockSnapshot.capture(level, pathChunks, base, count, Math.min(y, endY), Math.max(y, endY));
+        CompletableFuture<Double> solve = BeamPathSolver.submit(snapshot, x, y, z, dirX, dirY, dirZ, speed, length);
+        if (solve == null) return false;
+
+        pendingSolves[slot] = solve;
+        pathChunkCount[slot] = count;
+        for (int i = 0; i < count; i++) {
+            pathVersions[base + i] = chunkVersions.get(pathChunks[base + i]);
+        }
+        return true;
+    }
+
+    /**
+     * Takes the result of a beam's worker solve. If the worker hasn't finished (or failed), the path is
+     * solved on the server thread instead, so a slow pool only ever costs what solving did before.
+     *
+     * @param stepsTaken How many ticks the beam has already moved
+     */
+    private void joinSolve(int slot, int stepsTaken) {
+        CompletableFuture<Double> solve = pendingSolves[slot];
+        pendingSolves[slot] = null;
+
+        if (solve.isDone() && !solve.isCompletedExceptionally()) {
+            blockHitAt[slot] = travelled[slot] + solve.join();
+            return;
+        }
+
+        solve.cancel(false);
+        stats.recordLateSolve();
+        solvePath(slot, stepsTaken);
+    }
+
+    /**
+     * The entity that fired a beam, if it is still around.
+     * <p>
+     *     A removed shooter is looked up again by id, which finds the player that replaced it on respawn
+     *     (respawned players keep their id), and nothing if they left.
+     * </p>
+     */
+    @Nullable
+    private Entity owner(int slot) {
+        Entity owner = owners[slot];
+        if (owner != null && !owner.isRemoved()) return owner;
+
+        owner = level.getEntity(store.owner[slot]);
+        owners[slot] = owner;
+        return owner;
+    }
+
+    /** @return an empty hit set, reused from a removed beam if there is one */
+    private IntArraySet takeHitSet() {
+        IntArraySet set = hitSetPool.poll();
+        return set != null ? set : new IntArraySet();
+    }
+
+    /** @return true if a block changed in any chunk the beam's solved path depends on */
+    private boolean pathChanged(int slot) {
+        int base = slot * MAX_PATH_CHUNKS;
+        for (int i = 0; i < pathChunkCount[slot]; i++) {
+            if (chunkVersions.get(pathChunks[base + i]) != pathVersions[base + i]) return true;
+        }
+        return false;
+    }
+
+    /** Grows the manager's per-slot arrays after the store grew. */
+    private void ensureSlotCapacity() {
+        int capacity = store.capacity();
+        if (regionBySlot.length >= capacity) return;
+
+        regionBySlot = Arrays.copyOf(regionBySlot, capacity);
+        travelled = Arrays.copyOf(travelled, capacity);
+        blockHitAt = Arrays.copyOf(blockHitAt, capacity);
+        boundaryAt = Arrays.copyOf(boundaryAt, capacity);
+        pathChunkCount = Arrays.copyOf(pathChunkCount, capacity);
+        pathChunks = Arrays.copyOf(pathChunks, capacity * MAX_PATH_CHUNKS);
+        pathVersions = Arrays.copyOf(pathVersions, capacity * MAX_PATH_CHUNKS);
+        pendingSolves = Arrays.copyOf(pendingSolves, capacity);
+        pierceLeft = Arrays.copyOf(pierceLeft, capacity);
+        waitedTicks = Arrays.copyOf(waitedTicks, capacity);
+        endRanges = Arrays.copyOf(endRanges, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        hitSets = Arrays.copyOf(hitSets, capacity);
+    }
+
+    /**
+     * Tells clients a beam stopped before its lifetime ran out.
+     * <p>
+     *     Anyone sent the spawn was within the sync range of some point of the path, so a plain range
+     *     around the end that adds the path's full length reaches all of them. Both are taken from the
+     *     tuning the beam was fired with, not the current one.
+     * </p>
+     */
+    private void sendEnd(int slot) {
+        if (ModPackets.collectNearby(level, store.x[slot], store.z[slot], endRanges[slot], recipients) == 0) return;
+
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        new BeamEndPacket(store.id[slot]).write(buf);
+        recordPackets(ModPackets.send(recipients, BeamEndPacket.ID, buf));
+    }
+
+    /** Counts beam packets sent, towards the tracking range's load scaling and {@code /mq stats}. */
+    private void recordPackets(int sent) {
+        tracking.recordPackets(sent);
+        stats.recordPackets(sent);
+    }
+
+    /** Same target filter as {@code Projectile.canHitEntity}. */
+    private static boolean canHit(@Nullable Entity owner, Entity target) {
+        if (target.isSpectator() || !target.isAlive() || !target.isPickable()) return false;
+        return owner == null || !owner.isPassengerOfSameVehicle(target);
+    }
+}
@@ -0,0 +1,86 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Motion helpers shared by the beam entity and anything that wants to exercise its motion without one.
+ */
+public final class BeamMotion {
+    private BeamMotion() {}
+
+    /**
+     * A beam's starting velocity when fired by a player.
+     * <p>
+     *     Same aim math as {@code shootFromRotation}, including inheriting the shooter's motion. The server
+     *     and the shooter's client both use this, so a predicted beam flies where the real one will.
+     * </p>
+     *
+     * @param speed Starting speed in blocks per tick, before the shooter's motion is added
+     * @param out Receives the velocity's x, y and z, so firing doesn't allocate a {@code Vec3} per shot
+     */
+    public static void aim(Player player, double speed, double[] out) {
+        Vec3 shooterMotion = player.getDeltaMovement();
+        aim(player.getXRot(), player.getYRot(),
+            shooterMotion.x, player.onGround() ? 0.0 : shooterMotion.y, shooterMotion.z, speed, out);
+    }
+
+    /**
+     * A beam's starting velocity from a rotation and the motion it inherits, see {@link #aim(Player, double, double[])}.
+     *
+     * @param xRot Pitch in degrees
+     * @param yRot Yaw in degrees
+     * @param motionX Motion inherited from the shooter
+     * @param speed Starting speed in blocks per tick, before the shooter's motion is added
+     * @param out Receives the velocity's x, y and z
+     */
+    public static void aim(float xRot, float yRot, double motionX, double motionY, double motionZ, double speed, double[] out) {
+        float pitch = xRot * Mth.DEG_TO_RAD;
+        float yaw = yRot * Mth.DEG_TO_RAD;
+        double dx = -Mth.sin(yaw) * Mth.cos(pitch);
+        double dy = -Mth.sin(pitch);
+        double dz = Mth.cos(yaw) * Mth.cos(pitch);
+
+        // normalize then scale to the beam speed
+        double scale = speed / Math.sqrt(dx * dx + dy * dy + dz * dz);
+        out[0] = dx * scale + motionX;
+        out[1] = dy * scale + motionY;
+        out[2] = dz * scale + motionZ;
+    }
+
+    /**
+     * How far one ray of a volley is turned from where the shooter aims: the rays fan out
+     * sideways, evenly spaced and centered on the aim.
+     *
+     * @param ray Index of the ray, from 0
+     * @param rays Rays in the volley
+     * @param spread Degrees between neighbouring rays
+     * @return the yaw offset in degrees
+     */
+    public static float volleyYawOffset(int ray, int rays, float spread) {
+        return (ray - (rays - 1) * 0.5f) * spread;
+    }
+
+    /**
+     * Moves a beam's motion halfway towards a velocity update from the server, which smooths
+     * out corrections instead of snapping to them.
+     *
+     * @param current The motion the client has right now
+     * @return the blended motion
+     */
+    public static Vec3 lerpTowards(Vec3 current, double x, double y, double z) {
+        return new Vec3(lerpTowards(current.x, x), lerpTowards(current.y, y), lerpTowards(current.z, z));
+    }
+
+    /**
+     * One axis of {@link #lerpTowards(Vec3, double, double, double)}.
+     *
+     * @param current The motion the client has right now on this axis
+     * @param target The server's motion on this axis
+     * @return the blended motion on this axis
+     */
+    public static double lerpTowards(double current, double target) {
+        return current + (target - current) * 0.5;
+    }
+}
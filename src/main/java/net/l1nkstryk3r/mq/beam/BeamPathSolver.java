@@ -0,0 +1,68 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.minecraft.util.Mth;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small worker pool that solves beam paths off the server thread.
+ * <p>
+ *     Solving only reads a {@link BeamBlockSnapshot}, so any number of paths can be solved at once.
+ *     The pool uses up to half the cores (at most {@value #MAX_THREADS}) so it never competes with the
+ *     server thread, and its queue is bounded: when it is full, {@link #submit} says so and the caller
+ *     solves on the server thread as before.
+ * </p>
+ */
+public final class BeamPathSolver {
+    private static final int MAX_THREADS = 4;
+    private static final int QUEUE_SIZE = 1024;
+    private static final int THREADS = Mth.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, MAX_THREADS);
+
+    private static final ExecutorService POOL = createPool();
+
+    private BeamPathSolver() {}
+
+    /**
+     * Queues a path solve, see {@link BeamTrajectory#solveBlockHit}.
+     *
+     * @return the distance to the first block hit once solved, or null if the pool is saturated
+     */
+    @Nullable
+    public static CompletableFuture<Double> submit(BeamBlockSnapshot blocks, double x, double y, double z,
+                                                   double dirX, double dirY, double dirZ, double speed, double length) {
+        try {
+            return CompletableFuture.supplyAsync(
+                () -> BeamTrajectory.solveBlockHit(blocks, new BeamCollisionContext(), x, y, z, dirX, dirY, dirZ, speed, length),
+                POOL
+            );
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService createPool() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            THREADS, THREADS, 30L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE),
+            runnable -> {
+                Thread thread = new Thread(runnable, "MQ Beam Path Solver #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setUncaughtExceptionHandler((t, e) -> L1nksMasterQuest.LOGGER.error("Beam path solver failed", e));
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        // idle servers don't keep the threads around
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,147 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.fabricmc.fabric.api.entity.event.v1.ServerEntityWorldChangeEvents;
+import net.fabricmc.fabric.api.entity.event.v1.ServerPlayerEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.l1nkstryk3r.mq.network.BeamPredictPacket;
+import net.l1nkstryk3r.mq.network.BeamRejectPacket;
+import net.l1nkstryk3r.mq.network.BeamTuningPacket;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Server side of client-predicted beams.
+ * <p>
+ *     When the shooter's client decides a right-click will fire, it shows a beam at once and sends a
+ *     {@link BeamPredictPacket} with a sequence id just before the vanilla use-item packet. The server
+ *     remembers that sequence here until {@code MasterSword.use} claims it, and then either:
+ *     <ul>
+ *         <li>fires, tagging the {@code BeamSpawnPacket} with the sequence so the client swaps its predicted
+ *             beam for the real one</li>
+ *         <li>or refuses, sending a {@link BeamRejectPacket} so the client removes it</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     Predicted beams are visual only. Hits, damage and admission are still decided by the server alone.
+ *     A sequence that no shot claims within a tick (e.g. the server still had the sword on cooldown,
+ *     so {@code use} never ran) is rejected as well.
+ * </p>
+ * <p>
+ *     The client predicts with the speed, lifetime and cooldown the server sends it in a
+ *     {@link BeamTuningPacket} ({@link #syncTuning}), never with its own config. A rejected prediction
+ *     also takes back the client's cooldown, so the reject is always sent before any cooldown the server
+ *     sets for the same shot.
+ * </p>
+ */
+public final class BeamPredictions {
+    // sequence the client attached to its next shot, and the server tick it arrived on
+    private record Expected(int sequence, int tick) {}
+
+    private static final Map<UUID, Expected> EXPECTED = new HashMap<>();
+
+    // set by the client initializer, spawns a predicted beam for the local player
+    private static Consumer<Player> clientPredictor = player -> {};
+
+    private BeamPredictions() {}
+
+    /**
+     * Registers the packet receiver, the tuning sync hooks and the tick that rejects unclaimed predictions.
+     * Called once from the mod initializer.
+     */
+    public static void initialize() {
+        ServerPlayNetworking.registerGlobalReceiver(BeamPredictPacket.ID, (server, player, handler, buf, responseSender) -> {
+            BeamPredictPacket packet = BeamPredictPacket.read(buf);
+            // queued in order with the use-item packet that follows
+            server.execute(() -> expect(server, player, packet.sequence()));
+        });
+        ServerTickEvents.END_SERVER_TICK.register(BeamPredictions::rejectUnclaimed);
+
+        // the tuning is per dimension, so send it again whenever the player may have changed dimension
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> syncTuning(handler.player));
+        ServerPlayerEvents.AFTER_RESPAWN.register((oldPlayer, newPlayer, alive) -> syncTuning(newPlayer));
+        ServerEntityWorldChangeEvents.AFTER_PLAYER_CHANGE_WORLD.register((player, origin, destination) -> syncTuning(player));
+    }
+
+    /**
+     * Sends a player's client the tuning of their current dimension for its predictions.
+     * Called on join, respawn and dimension change, and for every player after {@code /mq reload}.
+     */
+    public static void syncTuning(ServerPlayer player) {
+        BeamTuning tuning = ModConfig.get().tuning(player.level().dimension());
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        new BeamTuningPacket(tuning.speed, tuning.lifetimeTicks, tuning.cooldownTicks).write(buf);
+        ServerPlayNetworking.send(player, BeamTuningPacket.ID, buf);
+    }
+
+    /** Lets the client side spawn predicted beams from common code, see {@link #predict}. */
+    public static void setClientPredictor(Consumer<Player> predictor) {
+        clientPredictor = predictor;
+    }
+
+    /**
+     * Client only: shows a predicted beam for a shot the local player is about to send.
+     * Does nothing on a dedicated server.
+     */
+    public static void predict(Player player) {
+        clientPredictor.accept(player);
+    }
+
+    /**
+     * Takes the sequence the player's client attached to this shot.
+     *
+     * @return the sequence, or 0 if the client didn't predict this shot
+     */
+    public static int claim(Player player) {
+        Expected expected = EXPECTED.remove(player.getUUID());
+        return expected == null ? 0 : expected.sequence();
+    }
+
+    /**
+     * Tells the player's client to remove a predicted beam and the cooldown it set for it;
+     * does nothing for sequence 0. Call it before setting any cooldown for the same shot.
+     */
+    public static void reject(Player player, int sequence) {
+        if (sequence == 0 || !(player instanceof ServerPlayer serverPlayer)) return;
+
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        new BeamRejectPacket(sequence).write(buf);
+        ServerPlayNetworking.send(serverPlayer, BeamRejectPacket.ID, buf);
+    }
+
+    private static void expect(MinecraftServer server, ServerPlayer player, int sequence) {
+        // a client only ever has one shot in flight, an older unclaimed one was never fired
+        Expected previous = EXPECTED.put(player.getUUID(), new Expected(sequence, server.getTickCount()));
+        if (previous != null) reject(player, previous.sequence());
+    }
+
+    /**
+     * Rejects predictions that weren't claimed within two ticks of arriving.
+     * The slack covers the use-item packet being run just after a tick boundary.
+     */
+    private static void rejectUnclaimed(MinecraftServer server) {
+        if (EXPECTED.isEmpty()) return;
+
+        Iterator<Map.Entry<UUID, Expected>> entries = EXPECTED.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<UUID, Expected> entry = entries.next();
+            if (server.getTickCount() - entry.getValue().tick() < 2) continue;
+
+            entries.remove();
+            ServerPlayer player = server.getPlayerList().getPlayer(entry.getKey());
+            if (player != null) reject(player, entry.getValue().sequence());
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package net.l1nkstryk3r.mq.beam;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Broad phase for beam hit detection: a uniform grid of bounding boxes, rebuilt once per tick.
+ * <p>
+ *     Each box is filed under every grid cell it overlaps. A beam only looks at the cells its
+ *     swept segment passes through, so a beam with empty cells around it does no per-entity work at all,
+ *     and crowded areas cost (boxes near the beam) instead of (every beam) x (every nearby entity section).
+ * </p>
+ * <p>
+ *     The narrow phase is the same face-clipping test as {@code AABB.clip}, so a box is only hit when the
+ *     segment enters it; a segment that starts inside a box does not count as hitting it.
+ * </p>
+ * <p>
+ *     Boxes are plain numbers with an index, so this class has no Minecraft dependencies.
+ * </p>
+ */
+public final class BeamSpatialHash {
+    /** Lets the caller skip boxes (e.g. entities the beam may not hit) before the narrow phase. */
+    @FunctionalInterface
+    public interface Filter {
+        boolean test(int index);
+    }
+
+    private static final double CELL_SIZE = 4.0;
+    private static final double EPSILON = 1.0E-7;
+
+    // === boxes ===
+    private double[] minX = new double[64], minY = new double[64], minZ = new double[64];
+    private double[] maxX = new double[64], maxY = new double[64], maxZ = new double[64];
+    // query id that last visited each box, so a box spanning several cells is tested once per query
+    private int[] visited = new int[64];
+    private int boxes;
+
+    // === cells: head entry per cell, entries chained through entryNext ===
+    private final Long2IntOpenHashMap cellHeads = new Long2IntOpenHashMap();
+    private int[] entryBox = new int[128];
+    private int[] entryNext = new int[128];
+    private int entries;
+
+    private int queryId;
+
+    public BeamSpatialHash() {
+        cellHeads.defaultReturnValue(-1);
+    }
+
+    /** Removes every box, keeping the arrays for the next rebuild. */
+    public void clear() {
+        boxes = 0;
+        entries = 0;
+        cellHeads.clear();
+    }
+
+    /** @return true if no boxes were added since the last {@link #clear()} */
+    public boolean isEmpty() {
+        return boxes == 0;
+    }
+
+    /**
+     * Adds a box to the grid.
+     *
+     * @return the box's index, passed back to the {@link Filter} and returned by queries
+     */
+    public int add(double x0, double y0, double z0, double x1, double y1, double z1) {
+        if (boxes == minX.length) growBoxes();
+
+        int index = boxes++;
+        minX[index] = x0;
+        minY[index] = y0;
+        minZ[index] = z0;
+        maxX[index] = x1;
+        maxY[index] = y1;
+        maxZ[index] = z1;
+        visited[index] = queryId;
+
+        int cx1 = cell(x1), cy1 = cell(y1), cz1 = cell(z1);
+        for (int cx = cell(x0); cx <= cx1; cx++) {
+            for (int cy = cell(y0); cy <= cy1; cy++) {
+                for (int cz = cell(z0); cz <= cz1; cz++) {
+                    if (entries == entryBox.length) growEntries();
+
+                    long key = key(cx, cy, cz);
+                    entryBox[entries] = index;
+                    entryNext[entries] = cellHeads.get(key);
+                    cellHeads.put(key, entries);
+                    entries++;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Finds the box the segment enters first.
+     *
+     * @param filter Boxes it rejects are skipped before the narrow phase
+     * @return the index of the nearest box hit, or -1 if none
+     */
+    public int queryNearest(double sx, double sy, double sz, double ex, double ey, double ez, Filter filter) {
+        if (boxes == 0) return -1;
+        queryId++;
+
+        double dx = ex - sx, dy = ey - sy, dz = ez - sz;
+        double bestT = 1.0;
+        int best = -1;
+
+        int cx1 = cell(Math.max(sx, ex)), cy1 = cell(Math.max(sy, ey)), cz1 = cell(Math.max(sz, ez));
+        for (int cx = cell(Math.min(sx, ex)); cx <= cx1; cx++) {
+            for (int cy = cell(Math.min(sy, ey)); cy <= cy1; cy++) {
+                for (int cz = cell(Math.min(sz, ez)); cz <= cz1; cz++) {
+                    for (int e = cellHeads.get(key(cx, cy, cz)); e >= 0; e = entryNext[e]) {
+                        int box = entryBox[e];
+                        if (visited[box] == queryId) continue;
+                        visited[box] = queryId;
+                        if (!filter.test(box)) continue;
+
+                        double t = clip(box, sx, sy, sz, dx, dy, dz, bestT);
+                        if (t < bestT) {
+                            bestT = t;
+                            best = box;
+                        }
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Face-clipping test matching {@code AABB.clip}: only the faces the segment moves towards are checked.
+     *
+     * @return the segment fraction where it enters the box, or {@code limit} if it doesn't before then
+     */
+    private double clip(int box, double sx, double sy, double sz, double dx, double dy, double dz, double limit) {
+        double t = limit;
+        if (dx > EPSILON) t = face(minX[box] - sx, dx, t, sy, dy, minY[box], maxY[box], sz, dz, minZ[box], maxZ[box]);
+        else if (dx < -EPSILON) t = face(maxX[box] - sx, dx, t, sy, dy, minY[box], maxY[box], sz, dz, minZ[box], maxZ[box]);
+
+        if (dy > EPSILON) t = face(minY[box] - sy, dy, t, sz, dz, minZ[box], maxZ[box], sx, dx, minX[box], maxX[box]);
+        else if (dy < -EPSILON) t = face(maxY[box] - sy, dy, t, sz, dz, minZ[box], maxZ[box], sx, dx, minX[box], maxX[box]);
+
+        if (dz > EPSILON) t = face(minZ[box] - sz, dz, t, sx, dx, minX[box], maxX[box], sy, dy, minY[box], maxY[box]);
+        else if (dz < -EPSILON) t = face(maxZ[box] - sz, dz, t, sx, dx, minX[box], maxX[box], sy, dy, minY[box], maxY[box]);
+        return t;
+    }
+
+    /** Checks one face plane: where the segment crosses it, and whether that point lies on the face. */
+    private static double face(double offset, double delta, double limit,
+                               double a, double da, double minA, double maxA,
+                               double b, double db, double minB, double maxB) {
+        double t = offset / delta;
+        if (t <= 0.0 || t >= limit) return limit;
+
+        double pa = a + t * da;
+        double pb = b + t * db;
+        if (minA - EPSILON < pa && pa < maxA + EPSILON && minB - EPSILON < pb && pb < maxB + EPSILON) return t;
+        return limit;
+    }
+
+    private static int cell(double coord) {
+        return (int) Math.floor(coord / CELL_SIZE);
+    }
+
+    /** Packs three cell coordinates into one key, 21 bits each. */
+    private static long key(int cx, int cy, int cz) {
+        return ((long) cx & 0x1FFFFF) << 42 | ((long) cy & 0x1FFFFF) << 21 | ((long) cz & 0x1FFFFF);
+    }
+
+    private void growBoxes() {
+        int capacity = minX.length * 2;
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        minZ = Arrays.copyOf(minZ, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        maxZ = Arrays.copyOf(maxZ, capacity);
+        visited = Arrays.copyOf(visited, capacity);
+    }
+
+    private void growEntries() {
+        int capacity = entryBox.length * 2;
+        entryBox = Arrays.copyOf(entryBox, capacity);
+        entryNext = Arrays.copyOf(entryNext, capacity);
+    }
+}
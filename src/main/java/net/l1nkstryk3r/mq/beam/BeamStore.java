@@ -0,0 +1,232 @@
+package net.l1nkstryk3r.mq.beam;
+
+import java.util.Arrays;
+
+/**
+ * Struct-of-arrays storage for live beams.
+ * <p>
+ *     Instead of one entity object per beam, each beam is a "slot" index into a set of
+ *     parallel primitive arrays (position, velocity, owner id, age, lifetime, network id). Freed slots are pushed
+ *     onto a free-list and recycled by the next shot, so steady-state firing allocates nothing.
+ * </p>
+ * <p>
+ *     Live slots are also kept in a dense {@code active} list so a tick only walks beams that
+ *     actually exist, not the whole capacity.
+ * </p>
+ * <p>
+ *     This class has no Minecraft dependencies on purpose, it is plain data that can be
+ *     stepped, tested and benchmarked on its own.
+ * </p>
+ */
+public final class BeamStore {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // === per-slot beam state ===
+    public double[] x, y, z;
+    public double[] vx, vy, vz;
+    public int[] owner;
+    public int[] age;
+    // ticks the beam lives, fixed when it is fired
+    public int[] lifetime;
+    public int[] id;
+
+    // === result of the last sweep(), read back by its caller ===
+    // motion over the swept ticks, and the velocity after them
+    public double sweepX, sweepY, sweepZ;
+    public double sweepVX, sweepVY, sweepVZ;
+
+    // network id handed to the next beam, unique per store
+    private int nextId;
+
+    // dense list of live slots, and each slot's index inside it (-1 when free)
+    private int[] active;
+    private int[] activeIndex;
+    private int activeCount;
+
+    // stack of recycled slots
+    private int[] free;
+    private int freeCount;
+
+    // highest slot index handed out so far
+    private int used;
+
+    public BeamStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public BeamStore(int capacity) {
+        resize(Math.max(capacity, 1));
+    }
+
+    /**
+     * Claims a slot for a new beam and fills in its starting state.
+     *
+     * @param lifetimeTicks How many ticks the beam lives
+     * @return the slot index of the new beam
+     */
+    public int allocate(double px, double py, double pz, double dx, double dy, double dz, int ownerId, int lifetimeTicks) {
+        return allocate(px, py, pz, dx, dy, dz, ownerId, nextId++, lifetimeTicks);
+    }
+
+    /**
+     * Claims a slot for a beam whose network id was chosen elsewhere (e.g. by the server).
+     *
+     * @return the slot index of the new beam
+     */
+    public int allocate(double px, double py, double pz, double dx, double dy, double dz, int ownerId, int beamId, int lifetimeTicks) {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            if (used == x.length) resize(x.length * 2);
+            slot = used++;
+        }
+
+        x[slot] = px;
+        y[slot] = py;
+        z[slot] = pz;
+        vx[slot] = dx;
+        vy[slot] = dy;
+        vz[slot] = dz;
+        owner[slot] = ownerId;
+        age[slot] = 0;
+        lifetime[slot] = lifetimeTicks;
+        id[slot] = beamId;
+
+        activeIndex[slot] = activeCount;
+        active[activeCount++] = slot;
+        return slot;
+    }
+
+    /**
+     * Returns a slot to the pool.
+     * <p>
+     *     The last live slot is swapped into the released position of the dense list, so callers
+     *     that release while walking {@link #activeSlot(int)} should walk it from the end.
+     * </p>
+     */
+    public void release(int slot) {
+        int index = activeIndex[slot];
+        if (index < 0) return;
+
+        int last = active[--activeCount];
+        active[index] = last;
+        activeIndex[last] = index;
+        activeIndex[slot] = -1;
+
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Moves a beam by its velocity, then scales the velocity by the drag factor.
+     * This is the whole of a beam's motion; it has no gravity.
+     */
+    public void move(int slot, double drag) {
+        sweep(slot, 1, drag);
+        commitSweep(slot);
+    }
+
+    /**
+     * Works out a beam's motion over a number of ticks without moving it, exactly as moving it tick by
+     * tick would: the motion lands in {@link #sweepX}, {@link #sweepY} and {@link #sweepZ}, the velocity
+     * after it in {@link #sweepVX}, {@link #sweepVY} and {@link #sweepVZ}.
+     * <p>
+     *     This is the motion half of the server's beam step, which tests the swept segment for hits before
+     *     it calls {@link #commitSweep}; the client and the benchmarks go through the same code.
+     * </p>
+     *
+     * @return the length of the swept segment
+     */
+    public double sweep(int slot, int ticks, double drag) {
+        double dx = vx[slot], dy = vy[slot], dz = vz[slot];
+        double speed = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double moveX = 0.0, moveY = 0.0, moveZ = 0.0;
+        double length = 0.0;
+        for (int tick = 0; tick < ticks; tick++) {
+            moveX += dx;
+            moveY += dy;
+            moveZ += dz;
+            length += speed;
+            dx *= drag;
+            dy *= drag;
+            dz *= drag;
+            speed *= drag;
+        }
+
+        sweepX = moveX;
+        sweepY = moveY;
+        sweepZ = moveZ;
+        sweepVX = dx;
+        sweepVY = dy;
+        sweepVZ = dz;
+        return length;
+    }
+
+    /** Moves a beam by the motion of the last {@link #sweep} and gives it the velocity after it. */
+    public void commitSweep(int slot) {
+        x[slot] += sweepX;
+        y[slot] += sweepY;
+        z[slot] += sweepZ;
+        vx[slot] = sweepVX;
+        vy[slot] = sweepVY;
+        vz[slot] = sweepVZ;
+    }
+
+    /** @return true if the given slot currently holds a live beam */
+    public boolean isLive(int slot) {
+        return slot >= 0 && slot < used && activeIndex[slot] >= 0;
+    }
+
+    /** @return the number of live beams */
+    public int size() {
+        return activeCount;
+    }
+
+    /** @return how many slots fit before the arrays have to grow */
+    public int capacity() {
+        return x.length;
+    }
+
+    /** @return the slot stored at position {@code i} of the dense live list */
+    public int activeSlot(int i) {
+        return active[i];
+    }
+
+    /** Drops every live beam without shrinking the arrays. */
+    public void clear() {
+        for (int i = 0; i < activeCount; i++) {
+            int slot = active[i];
+            activeIndex[slot] = -1;
+            free[freeCount++] = slot;
+        }
+        activeCount = 0;
+    }
+
+    /** Grows every parallel array to the new capacity, keeping existing contents. */
+    private void resize(int capacity) {
+        int old = x == null ? 0 : x.length;
+
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        z = grow(z, capacity);
+        vx = grow(vx, capacity);
+        vy = grow(vy, capacity);
+        vz = grow(vz, capacity);
+        owner = grow(owner, capacity);
+        age = grow(age, capacity);
+        lifetime = grow(lifetime, capacity);
+        id = grow(id, capacity);
+        active = grow(active, capacity);
+        free = grow(free, capacity);
+        activeIndex = grow(activeIndex, capacity);
+        Arrays.fill(activeIndex, old, capacity, -1);
+    }
+
+    private static double[] grow(double[] array, int capacity) {
+        return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+}
@@ -0,0 +1,98 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Decides which players of a level are sent a beam.
+ * <p>
+ *     Instead of everyone within a fixed range of where a beam is, a player only gets it if the beam's
+ *     remaining path comes within range of them, and, past {@code alwaysDistance}, only if part of that path
+ *     is in front of them. Beams flying away from a player or passing behind them aren't sent at all.
+ * </p>
+ * <p>
+ *     Every spawn goes to (players near its path), so in a crowded arena the packets grow with
+ *     (players) x (beams). To keep that in check the range shrinks once the level has more than
+ *     {@code crowdPlayers} players or sends more than {@code packetBudgetPerTick} beam packets per tick,
+ *     down to {@code minRangeScale} of its configured value. The scale is recomputed once per tick.
+ * </p>
+ */
+public final class BeamTracking {
+    // weight of the newest tick in the packet rate average
+    private static final float PACKET_RATE_SMOOTHING = 0.1f;
+
+    private float packetsPerTick;
+    private int packetsThisTick;
+    private float rangeScale = 1.0f;
+
+    /**
+     * Folds the last tick's packets into the average and recomputes the range scale.
+     *
+     * @param players How many players are in the level
+     */
+    public void updateLoad(int players) {
+        ModConfig.Tracking config = ModConfig.get().tracking;
+        packetsPerTick += (packetsThisTick - packetsPerTick) * PACKET_RATE_SMOOTHING;
+        packetsThisTick = 0;
+
+        // fan-out grows with the area the range covers, so shrink the range by the square root of the overshoot
+        float scale = 1.0f;
+        if (players > config.crowdPlayers) scale = Math.min(scale, (float) Math.sqrt((double) config.crowdPlayers / players));
+        if (packetsPerTick > config.packetBudgetPerTick) scale = Math.min(scale, (float) Math.sqrt(config.packetBudgetPerTick / packetsPerTick));
+        rangeScale = Mth.clamp(scale, config.minRangeScale, 1.0f);
+    }
+
+    /** Counts packets sent for beams this tick. */
+    public void recordPackets(int count) {
+        packetsThisTick += count;
+    }
+
+    /** @return the fraction of the configured range currently in use */
+    public float rangeScale() {
+        return rangeScale;
+    }
+
+    /**
+     * Checks whether a player should be sent a beam.
+     *
+     * @param x Beam position
+     * @param dirX Unit direction of travel
+     * @param length How much further the beam flies, in blocks
+     * @param range Configured range in blocks, before load scaling
+     */
+    public boolean shouldSend(ServerPlayer player, double x, double y, double z,
+                              double dirX, double dirY, double dirZ, double length, double range) {
+        double eyeX = player.getX(), eyeY = player.getEyeY(), eyeZ = player.getZ();
+
+        // closest point of the remaining path to the player
+        double along = Mth.clamp((eyeX - x) * dirX + (eyeY - y) * dirY + (eyeZ - z) * dirZ, 0.0, length);
+        double closestX = x + dirX * along, closestY = y + dirY * along, closestZ = z + dirZ * along;
+        double distanceSqr = Mth.lengthSquared(closestX - eyeX, closestY - eyeY, closestZ - eyeZ);
+
+        double scaledRange = range * rangeScale;
+        if (distanceSqr > scaledRange * scaledRange) return false;
+
+        ModConfig.Tracking config = ModConfig.get().tracking;
+        if (distanceSqr <= config.alwaysDistance * config.alwaysDistance) return true;
+
+        // past the always-send distance, some part of the path has to be in view:
+        // its start, its closest point or its end
+        Vec3 look = player.getViewVector(1.0f);
+        double minCos = Math.cos(config.viewAngle * Mth.DEG_TO_RAD);
+        return inView(look, minCos, x - eyeX, y - eyeY, z - eyeZ)
+            || inView(look, minCos, closestX - eyeX, closestY - eyeY, closestZ - eyeZ)
+            || inView(look, minCos, x + dirX * length - eyeX, y + dirY * length - eyeY, z + dirZ * length - eyeZ);
+    }
+
+    /** @return true if the offset from the eye lies within the view cone around {@code look} */
+    private static boolean inView(Vec3 look, double minCos, double dx, double dy, double dz) {
+        double lengthSqr = Mth.lengthSquared(dx, dy, dz);
+        if (lengthSqr < 1.0E-7) return true;
+        double dot = look.x * dx + look.y * dy + look.z * dz;
+        // compare without the square root, minding the sign
+        if (minCos >= 0.0) return dot >= 0.0 && dot * dot >= minCos * minCos * lengthSqr;
+        return dot >= 0.0 || dot * dot <= minCos * minCos * lengthSqr;
+    }
+}
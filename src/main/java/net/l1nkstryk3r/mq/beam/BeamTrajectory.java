@@ -0,0 +1,213 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import net.minecraft.world.phys.shapes.Shapes;
+import net.minecraft.world.phys.shapes.VoxelShape;
+
+/**
+ * Straight-line path math for beams.
+ * <p>
+ *     A beam has no gravity and only loses speed to a constant drag factor, so its whole flight lies on
+ *     one ray and how far it gets is a geometric series. That lets the block it will run into be found
+ *     once, with a single voxel walk along the whole ray, instead of raycasting again every tick.
+ * </p>
+ */
+public final class BeamTrajectory {
+    /** Distance value meaning "never hits a block". */
+    public static final double NO_HIT = Double.POSITIVE_INFINITY;
+
+    private BeamTrajectory() {}
+
+    /**
+     * How far a beam still travels before it expires.
+     *
+     * @param speed Current speed in blocks per tick
+     * @param age Ticks already stepped
+     * @param lifetimeTicks Ticks the beam lives
+     * @return the remaining path length in blocks
+     */
+    public static double remainingLength(double speed, int age, int lifetimeTicks) {
+        // the beam is stepped once more on the tick it expires (age lifetimeTicks + 1)
+        int steps = lifetimeTicks + 1 - age;
+        if (steps <= 0) return 0.0;
+        return speed * (1.0 - Math.pow(BeamManager.AIR_DRAG, steps)) / (1.0 - BeamManager.AIR_DRAG);
+    }
+
+    /**
+     * Walks the voxels along a ray and finds the first block collision shape it enters.
+     * <p>
+     *     The walk is the incremental voxel walk (DDA) of {@link BlockGetter#traverseBlocks}, nudged the same
+     *     way, so every block the ray touches is visited exactly once, in order. It keeps its position in the
+     *     context instead of a fresh {@code BlockPos}, and air and full blocks are decided from the cell the
+     *     ray enters without any {@code Vec3}, so a path through ordinary terrain allocates nothing. Only a
+     *     block with a partial shape is clipped like vanilla does.
+     * </p>
+     * <p>
+     *     Shapes are asked for with a {@link BeamCollisionContext}, at the height the beam has when the tick
+     *     that reaches each block starts, so blocks whose shape depends on the entity (scaffolding) stop the
+     *     beam where they would stop the projectile entity.
+     * </p>
+     *
+     * @param blocks The blocks to test, a {@link BeamChunkView} or a snapshot of one
+     * @param context The calling thread's context, reused from one solve to the next
+     * @param speed The beam's speed at the start of the ray, in blocks per tick
+     * @param length How far along the ray to search
+     * @return the distance along the ray to the first block hit, or {@link #NO_HIT}
+     */
+    public static double solveBlockHit(BlockGetter blocks, BeamCollisionContext context, double x, double y, double z,
+                                       double dirX, double dirY, double dirZ, double speed, double length) {
+        if (length <= 0.0) return NO_HIT;
+
+        double endX = x + dirX * length, endY = y + dirY * length, endZ = z + dirZ * length;
+        double fromX = Mth.lerp(-1.0E-7, x, endX), fromY = Mth.lerp(-1.0E-7, y, endY), fromZ = Mth.lerp(-1.0E-7, z, endZ);
+        double toX = Mth.lerp(-1.0E-7, endX, x), toY = Mth.lerp(-1.0E-7, endY, y), toZ = Mth.lerp(-1.0E-7, endZ, z);
+        int blockX = Mth.floor(fromX), blockY = Mth.floor(fromY), blockZ = Mth.floor(fromZ);
+
+        BlockPos.MutableBlockPos pos = context.pos().set(blockX, blockY, blockZ);
+        double hit = testBlock(blocks, context, pos, x, y, z, dirX, dirY, dirZ, speed, length);
+        if (hit != NO_HIT) return hit;
+
+        double dx = toX - fromX, dy = toY - fromY, dz = toZ - fromZ;
+        int stepX = Mth.sign(dx), stepY = Mth.sign(dy), stepZ = Mth.sign(dz);
+        // fraction of the ray between cell borders on each axis, and to the next border
+        double deltaX = stepX == 0 ? Double.MAX_VALUE : stepX / dx;
+        double deltaY = stepY == 0 ? Double.MAX_VALUE : stepY / dy;
+        double deltaZ = stepZ == 0 ? Double.MAX_VALUE : stepZ / dz;
+        double nextX = deltaX * (stepX > 0 ? 1.0 - Mth.frac(fromX) : Mth.frac(fromX));
+        double nextY = deltaY * (stepY > 0 ? 1.0 - Mth.frac(fromY) : Mth.frac(fromY));
+        double nextZ = deltaZ * (stepZ > 0 ? 1.0 - Mth.frac(fromZ) : Mth.frac(fromZ));
+
+        while (nextX <= 1.0 || nextY <= 1.0 || nextZ <= 1.0) {
+            if (nextX < nextY) {
+                if (nextX < nextZ) {
+                    blockX += stepX;
+                    nextX += deltaX;
+                } else {
+                    blockZ += stepZ;
+                    nextZ += deltaZ;
+                }
+            } else if (nextY < nextZ) {
+                blockY += stepY;
+                nextY += deltaY;
+            } else {
+                blockZ += stepZ;
+                nextZ += deltaZ;
+            }
+
+            hit = testBlock(blocks, context, pos.set(blockX, blockY, blockZ), x, y, z, dirX, dirY, dirZ, speed, length);
+            if (hit != NO_HIT) return hit;
+        }
+        return NO_HIT;
+    }
+
+    /**
+     * Tests one block of a walk, see {@link #solveBlockHit}.
+     *
+     * @return the distance along the ray to where it hits the block, or {@link #NO_HIT}
+     */
+    private static double testBlock(BlockGetter blocks, BeamCollisionContext context, BlockPos pos,
+                                     double x, double y, double z, double dirX, double dirY, double dirZ,
+                                     double speed, double length) {
+        BlockState state = blocks.getBlockState(pos);
+        if (state.isAir()) return NO_HIT;
+
+        double entered = cellEntry(x, y, z, dirX, dirY, dirZ, pos);
+        context.setBottom(y + dirY * tickStartDistance(entered, speed));
+        VoxelShape shape = state.getCollisionShape(blocks, pos, context);
+        if (shape.isEmpty()) return NO_HIT;
+        // a full block is hit where the ray enters its cell. A ray starting inside one is clipped below,
+        // which reports it the way vanilla does
+        if (shape == Shapes.block() && entered > 0.0) return entered <= length ? entered : NO_HIT;
+
+        // the interaction shape vanilla also clips only changes the reported face, never where the hit is
+        Vec3 start = new Vec3(x, y, z);
+        BlockHitResult hit = shape.clip(start, new Vec3(x + dirX * length, y + dirY * length, z + dirZ * length), pos);
+        return hit == null ? NO_HIT : start.distanceTo(hit.getLocation());
+    }
+
+    /**
+     * How far along a ray it enters a block's cell.
+     *
+     * @return the distance, 0 if the ray starts inside the cell
+     */
+    private static double cellEntry(double x, double y, double z, double dirX, double dirY, double dirZ, BlockPos pos) {
+        double entry = axisEntry(x, dirX, pos.getX());
+        entry = Math.max(entry, axisEntry(y, dirY, pos.getY()));
+        entry = Math.max(entry, axisEntry(z, dirZ, pos.getZ()));
+        return Math.max(entry, 0.0);
+    }
+
+    /** How far along one axis of a ray it enters the block span starting at {@code min}. */
+    private static double axisEntry(double start, double dir, int min) {
+        if (dir > 0.0) return (min - start) / dir;
+        if (dir < 0.0) return (min + 1 - start) / dir;
+        return Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Where along its path a beam was when the tick in which it reaches some distance started.
+     * A beam covers {@code speed * drag^k} in its k-th tick, so the tick boundaries are partial sums of that.
+     *
+     * @param distance Distance along the path from where the beam is now
+     * @param speed The beam's speed now
+     */
+    private static double tickStartDistance(double distance, double speed) {
+        if (speed < 1.0E-7 || distance <= 0.0) return 0.0;
+
+        double drag = BeamManager.AIR_DRAG;
+        double remaining = 1.0 - distance * (1.0 - drag) / speed;
+        // further than the beam can ever fly, only reached by rounding at the very end of the path
+        if (remaining <= 0.0) return distance;
+
+        int ticks = (int) Math.floor(Math.log(remaining) / Math.log(drag));
+        return Math.min(speed * (1.0 - Math.pow(drag, ticks)) / (1.0 - drag), distance);
+    }
+
+    /**
+     * Lists the chunks a horizontal segment passes through, in order.
+     *
+     * @param out Receives chunk keys ({@link ChunkPos#asLong}) starting at {@code offset}
+     * @param max How many keys fit in {@code out} from {@code offset}
+     * @return how many chunks were written, or -1 if there are more than {@code max}
+     */
+    public static int chunksAlong(double x0, double z0, double x1, double z1, long[] out, int offset, int max) {
+        int cx = ((int) Math.floor(x0)) >> 4;
+        int cz = ((int) Math.floor(z0)) >> 4;
+        int endX = ((int) Math.floor(x1)) >> 4;
+        int endZ = ((int) Math.floor(z1)) >> 4;
+
+        double dx = x1 - x0;
+        double dz = z1 - z0;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepZ = dz > 0 ? 1 : -1;
+
+        // distance (as a fraction of the segment) to the next chunk border on each axis, and between borders
+        double deltaX = dx == 0 ? Double.POSITIVE_INFINITY : 16.0 / Math.abs(dx);
+        double deltaZ = dz == 0 ? Double.POSITIVE_INFINITY : 16.0 / Math.abs(dz);
+        double nextX = dx == 0 ? Double.POSITIVE_INFINITY : ((stepX > 0 ? (cx + 1) * 16.0 - x0 : x0 - cx * 16.0) / Math.abs(dx));
+        double nextZ = dz == 0 ? Double.POSITIVE_INFINITY : ((stepZ > 0 ? (cz + 1) * 16.0 - z0 : z0 - cz * 16.0) / Math.abs(dz));
+
+        int count = 0;
+        while (true) {
+            if (count == max) return -1;
+            out[offset + count++] = ChunkPos.asLong(cx, cz);
+            if (cx == endX && cz == endZ) return count;
+            // guard against rounding walking past the end
+            if (Math.min(nextX, nextZ) > 1.0) return count;
+
+            if (nextX < nextZ) {
+                cx += stepX;
+                nextX += deltaX;
+            } else {
+                cz += stepZ;
+                nextZ += deltaZ;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.l1nkstryk3r.mq.beam;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import net.l1nkstryk3r.mq.entity.MasterSwordBeamEntity;
+import net.l1nkstryk3r.mq.network.BeamEffectsPacket;
+import net.l1nkstryk3r.mq.network.BeamEndPacket;
+import net.l1nkstryk3r.mq.network.BeamSpawnPacket;
+import net.l1nkstryk3r.mq.stats.BeamImpactEvent;
+import net.l1nkstryk3r.mq.stats.BeamSpawnEvent;
+import net.l1nkstryk3r.mq.stats.BeamStats;
+import net.l1nkstryk3r.mq.stats.LatencyHistogram;
+import net.l1nkstryk3r.mq.trace.BeamTraceRecorder;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.level.EmptyBlockGetter;
+
+/**
+ * Loads and exercises the server-side beam code before anyone can fire.
+ * <p>
+ *     Everything a shot touches is otherwise loaded lazily by the first {@code MasterSword.use},
+ *     which shows up as a hitch on that tick. This loads and initializes those classes and runs each
+ *     hot path once on throwaway data, while the server is still loading its levels.
+ * </p>
+ * <p>
+ *     Runs once per JVM, from {@code MinecraftServerMixin}; the client has its own half in
+ *     {@code ClientBeamWarmup}.
+ * </p>
+ */
+public final class BeamWarmup {
+    // everything the first shot, step and hit load, in roughly that order
+    private static final Class<?>[] CLASSES = {
+        BeamManager.class, BeamAdmission.class, BeamStore.class, BeamTrajectory.class,
+        BeamBlockSnapshot.class, BeamPathSolver.class, BeamSpatialHash.class, BeamHits.class,
+        BeamEffects.class, BeamMotion.class, BeamStats.class, LatencyHistogram.class,
+        BeamSpawnEvent.class, BeamImpactEvent.class, BeamSpawnPacket.class, BeamEndPacket.class,
+        BeamEffectsPacket.class, BeamTraceRecorder.class, MasterSwordBeamEntity.class
+    };
+
+    private static boolean warmedUp;
+
+    private BeamWarmup() {}
+
+    /** Warms up the beam code, the first time only. */
+    public static synchronized void warmUp() {
+        if (warmedUp) return;
+        warmedUp = true;
+
+        long start = System.nanoTime();
+        try {
+            for (Class<?> type : CLASSES) {
+                Class.forName(type.getName(), true, type.getClassLoader());
+            }
+            exercise();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // only ever a lost optimization, the same code loads again on first use
+            L1nksMasterQuest.LOGGER.warn("Beam warm-up failed", e);
+            return;
+        }
+        L1nksMasterQuest.LOGGER.info("Warmed up beam code in {} ms", (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /** Runs a fake beam through store, path solve, broad phase and spawn packet. */
+    private static void exercise() {
+        BeamTuning tuning = BeamTuning.DEFAULTS;
+
+        BeamStore store = new BeamStore();
+        int slot = store.allocate(0.5, 64.0, 0.5, 0.0, 0.0, tuning.speed, 0, tuning.lifetimeTicks);
+        store.move(slot, BeamManager.AIR_DRAG);
+
+        double length = BeamTrajectory.remainingLength(tuning.speed, 0, tuning.lifetimeTicks);
+        BeamTrajectory.solveBlockHit(EmptyBlockGetter.INSTANCE, new BeamCollisionContext(),
+            0.5, 64.0, 0.5, 0.0, 0.0, 1.0, tuning.speed, length);
+        BeamTrajectory.chunksAlong(0.5, 0.5, 0.5, 0.5 + length, new long[8], 0, 8);
+
+        BeamSpatialHash grid = new BeamSpatialHash();
+        grid.add(0.0, 63.0, 1.0, 1.0, 65.0, 2.0);
+        grid.queryNearest(0.5, 64.0, 0.5, 0.5, 64.0, 0.5 + tuning.speed, index -> true);
+
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        try {
+            new BeamSpawnPacket(store.id[slot], 0, 0L, 0.5, 64.0, 0.5, 0.0f, 0.0f, 1.0f, tuning.speed, tuning.lifetimeTicks, 0).write(buf);
+            BeamSpawnPacket.read(buf);
+        } finally {
+            buf.release();
+        }
+        store.release(slot);
+    }
+}
@@ -0,0 +1,105 @@
+package net.l1nkstryk3r.mq.client;
+
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.l1nkstryk3r.mq.network.BeamEffectsPacket;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.core.particles.ParticleTypes;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.sounds.SoundEvents;
+import net.minecraft.sounds.SoundSource;
+import net.minecraft.util.RandomSource;
+
+/**
+ * Plays the beam effects the server batches into {@link BeamEffectsPacket}s.
+ * <p>
+ *     Each entry is a cluster of one or more merged effects. A single effect looks and sounds exactly like
+ *     the old server-sent one; bigger clusters get more particles over a wider area and a slightly louder
+ *     sound, up to a cap, instead of stacking every effect on top of each other.
+ * </p>
+ */
+public final class ClientBeamEffects {
+    // === impact burst, same as the server's old sendParticles call ===
+    private static final int PARTICLES_PER_IMPACT = 15;
+    private static final int MAX_PARTICLES = 60;
+    private static final double SPREAD = 0.2;
+    private static final double MAX_SPREAD = 0.6;
+    private static final double PARTICLE_SPEED = 0.05;
+
+    // === sounds ===
+    private static final float IMPACT_VOLUME = 0.8f;
+    private static final float IMPACT_PITCH = 1.4f;
+    private static final float FIRE_VOLUME = 0.8f;
+    private static final float FIRE_PITCH = 1.6f;
+    private static final float MAX_VOLUME = 1.0f;
+
+    private ClientBeamEffects() {}
+
+    /**
+     * Registers the packet receiver.
+     * Called once from the client initializer.
+     */
+    public static void initialize() {
+        ClientPlayNetworking.registerGlobalReceiver(BeamEffectsPacket.ID, (client, handler, buf, responseSender) -> {
+            // copy the payload out, the buffer is released once this receiver returns
+            FriendlyByteBuf copy = new FriendlyByteBuf(buf.copy());
+            client.execute(() -> {
+                try {
+                    play(client, copy);
+                } finally {
+                    copy.release();
+                }
+            });
+        });
+    }
+
+    private static void play(Minecraft client, FriendlyByteBuf buf) {
+        ClientLevel level = client.level;
+        if (level == null) return;
+
+        int entries = buf.readInt();
+        for (int i = 0; i < entries; i++) {
+            byte kind = buf.readByte();
+            double x = buf.readFloat();
+            double y = buf.readFloat();
+            double z = buf.readFloat();
+            int merged = buf.readVarInt();
+
+            switch (kind) {
+                case BeamEffectsPacket.ENTITY_IMPACT -> {
+                    burst(level, x, y, z, merged);
+                    level.playLocalSound(x, y, z, SoundEvents.AMETHYST_BLOCK_HIT, SoundSource.PLAYERS,
+                        louder(IMPACT_VOLUME, merged), IMPACT_PITCH, false);
+                }
+                case BeamEffectsPacket.BLOCK_IMPACT -> burst(level, x, y, z, merged);
+                case BeamEffectsPacket.FIRE -> level.playLocalSound(x, y, z, SoundEvents.ARROW_SHOOT, SoundSource.PLAYERS,
+                    louder(FIRE_VOLUME, merged), FIRE_PITCH, false);
+                default -> {}
+            }
+        }
+    }
+
+    /** Spawns a glow burst the same way the vanilla particle packet handler does, scaled by cluster size. */
+    private static void burst(ClientLevel level, double x, double y, double z, int merged) {
+        RandomSource random = level.getRandom();
+        int particles = Math.min(PARTICLES_PER_IMPACT * merged, MAX_PARTICLES);
+        double spread = Math.min(SPREAD * Math.sqrt(merged), MAX_SPREAD);
+
+        for (int i = 0; i < particles; i++) {
+            level.addParticle(
+                ParticleTypes.GLOW,
+                x + random.nextGaussian() * spread,
+                y + random.nextGaussian() * spread,
+                z + random.nextGaussian() * spread,
+                random.nextGaussian() * PARTICLE_SPEED,
+                random.nextGaussian() * PARTICLE_SPEED,
+                random.nextGaussian() * PARTICLE_SPEED
+            );
+        }
+    }
+
+    /** Each extra merged effect adds a little volume, capped so storms don't get deafening. */
+    private static float louder(float volume, int merged) {
+        return Math.min(volume + 0.05f * (merged - 1), MAX_VOLUME);
+    }
+}
@@ -0,0 +1,61 @@
+package net.l1nkstryk3r.mq.client;
+
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.event.player.UseItemCallback;
+import net.l1nkstryk3r.mq.beam.BeamEligibility;
+import net.l1nkstryk3r.mq.item.ModItems;
+import net.l1nkstryk3r.mq.network.BeamChargePacket;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.world.InteractionResultHolder;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * The local player's fire eligibility, as synced by the server's {@link BeamEligibility}.
+ * <p>
+ *     A right-click with the sword that can't fire, because the player isn't charged or the sword is on
+ *     cooldown, is consumed in {@link UseItemCallback} before vanilla builds its use-item packet. No packet
+ *     is sent, the hand doesn't swing, and {@code MasterSword.use} isn't called on either side. Consuming,
+ *     unlike failing, also ends the click there: vanilla doesn't go on to use the item in the other hand,
+ *     just as it wouldn't after a shot.
+ * </p>
+ * <p>
+ *     Until the server says otherwise the player counts as charged, so nothing is held back on a server
+ *     that never sends the state.
+ * </p>
+ */
+public final class ClientBeamEligibility {
+    private static boolean charged = true;
+
+    private ClientBeamEligibility() {}
+
+    /**
+     * Registers the packet receiver and the use-item hook.
+     * Called once from the client initializer.
+     */
+    public static void initialize() {
+        ClientPlayNetworking.registerGlobalReceiver(BeamChargePacket.ID, (client, handler, buf, responseSender) -> {
+            BeamChargePacket packet = BeamChargePacket.read(buf);
+            client.execute(() -> charged = packet.charged());
+        });
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(() -> charged = true));
+        BeamEligibility.setClientCharged(ClientBeamEligibility::isHeldAndCharged);
+
+        UseItemCallback.EVENT.register((player, world, hand) -> {
+            ItemStack stack = player.getItemInHand(hand);
+            // the callback runs on the integrated server too, which always decides for itself
+            if (!world.isClientSide || !stack.is(ModItems.MASTER_SWORD)) return InteractionResultHolder.pass(stack);
+
+            if (!charged || player.getCooldowns().isOnCooldown(stack.getItem())) return InteractionResultHolder.consume(stack);
+            return InteractionResultHolder.pass(stack);
+        });
+    }
+
+    /** Whether the local player holds this exact stack in either hand and can fire. */
+    private static boolean isHeldAndCharged(ItemStack stack) {
+        if (!charged) return false;
+        LocalPlayer player = Minecraft.getInstance().player;
+        return player != null && (player.getMainHandItem() == stack || player.getOffhandItem() == stack);
+    }
+}
@@ -0,0 +1,123 @@
+package net.l1nkstryk3r.mq.client;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import net.l1nkstryk3r.mq.renderer.BeamBatchRenderer;
+import net.l1nkstryk3r.mq.renderer.BeamMesh;
+import net.l1nkstryk3r.mq.renderer.BeamRenderType;
+import net.l1nkstryk3r.mq.renderer.MasterSwordBeamRenderer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.sounds.SoundEvent;
+import net.minecraft.sounds.SoundEvents;
+import org.joml.Matrix4f;
+
+/**
+ * Loads the beam's client resources before the first beam is drawn.
+ * <p>
+ *     The first visible beam used to load the renderer classes, create the beam render type,
+ *     upload the beam texture and look up the beam sounds all in one frame. This does all of that once the
+ *     client has finished its startup resource load, while the title screen is up:
+ *     <ul>
+ *         <li>loads and initializes the client beam classes, which creates the render type</li>
+ *         <li>uploads the texture through the texture manager, which keeps it for later frames</li>
+ *         <li>emits each beam mesh once into a discarding consumer</li>
+ *         <li>resolves the sound events the beam plays</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     Audio data isn't preloaded: the sound engine decodes it off the render thread on first play anyway.
+ * </p>
+ */
+public final class ClientBeamWarmup {
+    private static final Class<?>[] CLASSES = {
+        BeamBatchRenderer.class, BeamMesh.class, BeamRenderType.class, MasterSwordBeamRenderer.class,
+        ClientBeams.class, ClientBeamEffects.class
+    };
+
+    private static final SoundEvent[] SOUNDS = {
+        SoundEvents.ARROW_SHOOT, SoundEvents.AMETHYST_BLOCK_HIT, SoundEvents.FIRE_EXTINGUISH
+    };
+
+    private ClientBeamWarmup() {}
+
+    /**
+     * Schedules the warm-up for when the client has started.
+     * Called once from the client initializer.
+     */
+    public static void initialize() {
+        ClientLifecycleEvents.CLIENT_STARTED.register(ClientBeamWarmup::warmUp);
+    }
+
+    /** Warms up the client resources; runs on the render thread. */
+    private static void warmUp(Minecraft client) {
+        long start = System.nanoTime();
+        try {
+            for (Class<?> type : CLASSES) {
+                Class.forName(type.getName(), true, type.getClassLoader());
+            }
+
+            client.getTextureManager().getTexture(BeamBatchRenderer.TEXTURE);
+
+            int lifetime = BeamTuning.DEFAULTS.lifetimeTicks;
+            Matrix4f pose = new Matrix4f();
+            BeamMesh.emit(DiscardingVertexConsumer.INSTANCE, pose, 0, lifetime);
+            BeamMesh.emitBillboard(DiscardingVertexConsumer.INSTANCE, pose, 0.0f, 0.0f, 1.0f, 0.0f, 0.0f, 1.0f,
+                BeamMesh.HALF_WIDTH, 0, lifetime);
+
+            for (SoundEvent sound : SOUNDS) {
+                client.getSoundManager().getSoundEvent(sound.getLocation());
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // only ever a lost optimization, the same resources load again on first use
+            L1nksMasterQuest.LOGGER.warn("Client beam warm-up failed", e);
+            return;
+        }
+        L1nksMasterQuest.LOGGER.info("Warmed up beam rendering in {} ms", (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    /** Drops every vertex; only used to run the mesh code once. */
+    private enum DiscardingVertexConsumer implements VertexConsumer {
+        INSTANCE;
+
+        @Override
+        public VertexConsumer vertex(double x, double y, double z) {
+            return this;
+        }
+
+        @Override
+        public VertexConsumer color(int red, int green, int blue, int alpha) {
+            return this;
+        }
+
+        @Override
+        public VertexConsumer uv(float u, float v) {
+            return this;
+        }
+
+        @Override
+        public VertexConsumer overlayCoords(int u, int v) {
+            return this;
+        }
+
+        @Override
+        public VertexConsumer uv2(int u, int v) {
+            return this;
+        }
+
+        @Override
+        public VertexConsumer normal(float x, float y, float z) {
+            return this;
+        }
+
+        @Override
+        public void endVertex() {}
+
+        @Override
+        public void defaultColor(int red, int green, int blue, int alpha) {}
+
+        @Override
+        public void unsetDefaultColor() {}
+    }
+}
@@ -0,0 +1,280 @@
+package net.l1nkstryk3r.mq.client;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamMotion;
+import net.l1nkstryk3r.mq.beam.BeamPredictions;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import net.l1nkstryk3r.mq.item.ModItems;
+import net.l1nkstryk3r.mq.network.BeamEndPacket;
+import net.l1nkstryk3r.mq.network.BeamPredictPacket;
+import net.l1nkstryk3r.mq.network.BeamRejectPacket;
+import net.l1nkstryk3r.mq.network.BeamSpawnPacket;
+import net.l1nkstryk3r.mq.network.BeamTuningPacket;
+import net.l1nkstryk3r.mq.network.BeamVolleyPacket;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Client-side simulation of pooled beams.
+ * <p>
+ *     The server sends a single {@link BeamSpawnPacket} per beam. Since beams fly straight with a
+ *     fixed drag, the client can replay the exact same motion locally every tick instead of waiting
+ *     for position updates, so there is nothing to interpolate and nothing to rubber-band.
+ * </p>
+ * <p>
+ *     Beams are removed when their lifetime runs out, or early on a {@link BeamEndPacket}.
+ * </p>
+ * <p>
+ *     The local player's own shots are predicted ({@link BeamPredictions}): the beam starts flying on the
+ *     click, under the negated sequence id as its beam id so it can't clash with server ids. When the
+ *     server's spawn packet for it arrives, the predicted beam keeps flying under the server's id if it is
+ *     where the server's beam would be, and is swapped for the server's beam otherwise.
+ * </p>
+ * <p>
+ *     Predictions use the speed, lifetime and cooldown the server last sent ({@link BeamTuningPacket}).
+ *     Until the server has sent them nothing is predicted, and a rejected prediction takes its
+ *     cooldown back with it.
+ * </p>
+ */
+public final class ClientBeams {
+    private static final BeamStore BEAMS = new BeamStore();
+    private static final Int2IntOpenHashMap SLOTS_BY_ID = new Int2IntOpenHashMap();
+    // velocity of the beam being started, see BeamMotion.aim
+    private static final double[] AIM = new double[3];
+
+    // how far a predicted beam may be from the server's beam and still be kept, in blocks
+    private static final double PREDICTION_TOLERANCE = 0.5;
+    // last sequence id handed to a predicted beam, never 0
+    private static int lastSequence;
+    // the server's tuning for the current dimension, null until it is sent
+    private static BeamTuningPacket tuning;
+
+    // the level the current beams belong to, beams are dropped when it changes
+    private static ClientLevel currentLevel;
+
+    static {
+        SLOTS_BY_ID.defaultReturnValue(-1);
+    }
+
+    private ClientBeams() {}
+
+    /**
+     * Registers the packet receivers and client tick hook.
+     * Called once from the client initializer.
+     */
+    public static void initialize() {
+        // packets arrive on the network thread, so hand them over to the client thread
+        ClientPlayNetworking.registerGlobalReceiver(BeamSpawnPacket.ID, (client, handler, buf, responseSender) -> {
+            BeamSpawnPacket packet = BeamSpawnPacket.read(buf);
+            client.execute(() -> spawn(client.level, packet));
+        });
+        ClientPlayNetworking.registerGlobalReceiver(BeamVolleyPacket.ID, (client, handler, buf, responseSender) -> {
+            BeamVolleyPacket packet = BeamVolleyPacket.read(buf);
+            client.execute(() -> spawnVolley(client.level, packet));
+        });
+        ClientPlayNetworking.registerGlobalReceiver(BeamEndPacket.ID, (client, handler, buf, responseSender) -> {
+            BeamEndPacket packet = BeamEndPacket.read(buf);
+            client.execute(() -> remove(packet.beamId()));
+        });
+        ClientPlayNetworking.registerGlobalReceiver(BeamRejectPacket.ID, (client, handler, buf, responseSender) -> {
+            BeamRejectPacket packet = BeamRejectPacket.read(buf);
+            client.execute(() -> reject(client, packet.sequence()));
+        });
+        ClientPlayNetworking.registerGlobalReceiver(BeamTuningPacket.ID, (client, handler, buf, responseSender) -> {
+            BeamTuningPacket packet = BeamTuningPacket.read(buf);
+            client.execute(() -> tuning = packet);
+        });
+        BeamPredictions.setClientPredictor(ClientBeams::predict);
+
+        ClientTickEvents.END_CLIENT_TICK.register(ClientBeams::tick);
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(() -> {
+            clear();
+            tuning = null;
+        }));
+    }
+
+    /** @return the live client beams, read by the renderer */
+    public static BeamStore beams() {
+        return BEAMS;
+    }
+
+    /**
+     * Starts simulating a beam the server just fired.
+     * <p>
+     *     If the packet arrives late, the beam is fast-forwarded to where the server has it by now.
+     * </p>
+     */
+    private static void spawn(ClientLevel level, BeamSpawnPacket packet) {
+        if (level == null) return;
+        if (level != currentLevel) {
+            clear();
+            currentLevel = level;
+        }
+        if (packet.prediction() != 0 && confirm(packet)) return;
+
+        int slot = BEAMS.allocate(
+            packet.x(), packet.y(), packet.z(),
+            packet.dirX() * packet.speed(), packet.dirY() * packet.speed(), packet.dirZ() * packet.speed(),
+            packet.ownerId(),
+            packet.beamId(),
+            packet.lifetimeTicks()
+        );
+        SLOTS_BY_ID.put(packet.beamId(), slot);
+
+        // catch up on the ticks we missed while the packet was in flight
+        long elapsed = Math.min(level.getGameTime() - packet.spawnTick(), packet.lifetimeTicks() + 1);
+        for (long i = 0; i < elapsed && BEAMS.isLive(slot); i++) {
+            step(slot);
+        }
+    }
+
+    /**
+     * Starts simulating every ray of a volley the server just fired, rebuilt from the shooter's aim
+     * the same way the server built them.
+     */
+    private static void spawnVolley(ClientLevel level, BeamVolleyPacket packet) {
+        if (level == null) return;
+        if (level != currentLevel) {
+            clear();
+            currentLevel = level;
+        }
+
+        long elapsed = Math.min(level.getGameTime() - packet.spawnTick(), packet.lifetimeTicks() + 1);
+        for (int ray = 0; ray < packet.rays(); ray++) {
+            float yRot = packet.yRot() + BeamMotion.volleyYawOffset(ray, packet.rays(), packet.spread());
+            BeamMotion.aim(packet.xRot(), yRot, packet.motionX(), packet.motionY(), packet.motionZ(), packet.speed(), AIM);
+
+            int beamId = packet.firstBeamId() + ray;
+            int slot = BEAMS.allocate(
+                packet.x(), packet.y(), packet.z(),
+                AIM[0], AIM[1], AIM[2],
+                packet.ownerId(),
+                beamId,
+                packet.lifetimeTicks()
+            );
+            SLOTS_BY_ID.put(beamId, slot);
+
+            // catch up on the ticks we missed while the packet was in flight
+            for (long i = 0; i < elapsed && BEAMS.isLive(slot); i++) {
+                step(slot);
+            }
+        }
+    }
+
+    /**
+     * Starts a predicted beam for a shot the local player is taking, puts the sword on the server's
+     * cooldown, and tells the server about it. Called from {@code MasterSword.use} on the client.
+     */
+    private static void predict(Player player) {
+        // volleys aren't predicted, their rays show up with the server's packet
+        if (player.isShiftKeyDown()) return;
+        // without the server's tuning the beam and cooldown would only be guesses
+        if (tuning == null) return;
+        if (!(player.level() instanceof ClientLevel level) || !ClientPlayNetworking.canSend(BeamPredictPacket.ID)) return;
+        if (level != currentLevel) {
+            clear();
+            currentLevel = level;
+        }
+
+        lastSequence = lastSequence == Integer.MAX_VALUE ? 1 : lastSequence + 1;
+        BeamMotion.aim(player, tuning.speed(), AIM);
+
+        int slot = BEAMS.allocate(
+            player.getX(), player.getEyeY() - BeamManager.EYE_OFFSET, player.getZ(),
+            AIM[0], AIM[1], AIM[2],
+            player.getId(),
+            -lastSequence,
+            tuning.lifetimeTicks()
+        );
+        SLOTS_BY_ID.put(-lastSequence, slot);
+        // the same cooldown the server sets if it fires, so the client doesn't predict a shot it can't take
+        player.getCooldowns().addCooldown(ModItems.MASTER_SWORD, tuning.cooldownTicks());
+
+        FriendlyByteBuf buf = PacketByteBufs.create();
+        new BeamPredictPacket(lastSequence).write(buf);
+        ClientPlayNetworking.send(BeamPredictPacket.ID, buf);
+    }
+
+    /**
+     * Removes a predicted beam the server didn't fire, along with the cooldown it was predicted with.
+     * Any cooldown the server sets for the refused shot arrives after the reject and still applies.
+     */
+    private static void reject(Minecraft client, int sequence) {
+        remove(-sequence);
+        if (client.player != null) client.player.getCooldowns().removeCooldown(ModItems.MASTER_SWORD);
+    }
+
+    /**
+     * Hands a predicted beam over to the server's beam that confirms it.
+     *
+     * @return true if the predicted beam now stands in for the server's beam, false if the server's beam
+     *         should be spawned as usual (the prediction is gone, isn't ours, or was too far off)
+     */
+    private static boolean confirm(BeamSpawnPacket packet) {
+        Minecraft client = Minecraft.getInstance();
+        if (client.player == null || client.player.getId() != packet.ownerId()) return false;
+
+        int slot = SLOTS_BY_ID.remove(-packet.prediction());
+        if (slot < 0) return false;
+
+        // where the server's beam is after as many steps as the prediction has taken
+        int age = BEAMS.age[slot];
+        double travelled = packet.speed() * (1.0 - Math.pow(BeamManager.AIR_DRAG, age)) / (1.0 - BeamManager.AIR_DRAG);
+        double dx = packet.x() + packet.dirX() * travelled - BEAMS.x[slot];
+        double dy = packet.y() + packet.dirY() * travelled - BEAMS.y[slot];
+        double dz = packet.z() + packet.dirZ() * travelled - BEAMS.z[slot];
+        if (dx * dx + dy * dy + dz * dz > PREDICTION_TOLERANCE * PREDICTION_TOLERANCE) {
+            BEAMS.release(slot);
+            return false;
+        }
+
+        // close enough: keep it flying, under the server's id and lifetime
+        BEAMS.id[slot] = packet.beamId();
+        BEAMS.lifetime[slot] = packet.lifetimeTicks();
+        SLOTS_BY_ID.put(packet.beamId(), slot);
+        return true;
+    }
+
+    /** Advances every beam by one tick. */
+    private static void tick(Minecraft client) {
+        if (client.level != currentLevel) {
+            clear();
+            currentLevel = client.level;
+        }
+        if (client.level == null || client.isPaused()) return;
+
+        // walk backwards so released slots swapped into place have already been stepped
+        for (int i = BEAMS.size() - 1; i >= 0; i--) {
+            step(BEAMS.activeSlot(i));
+        }
+    }
+
+    /** Same motion as the server step in {@link BeamManager}, minus hit detection. */
+    private static void step(int slot) {
+        BEAMS.age[slot]++;
+        BEAMS.move(slot, BeamManager.AIR_DRAG);
+
+        if (BEAMS.age[slot] > BEAMS.lifetime[slot]) {
+            remove(BEAMS.id[slot]);
+        }
+    }
+
+    /** Stops simulating the beam with the given server id, if we still have it. */
+    private static void remove(int beamId) {
+        int slot = SLOTS_BY_ID.remove(beamId);
+        if (slot >= 0) BEAMS.release(slot);
+    }
+
+    /** Drops every beam, e.g. on disconnect or when changing dimension. */
+    private static void clear() {
+        BEAMS.clear();
+        SLOTS_BY_ID.clear();
+    }
+}
@@ -0,0 +1,212 @@
+package net.l1nkstryk3r.mq.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamPredictions;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.l1nkstryk3r.mq.stats.BeamStats;
+import net.l1nkstryk3r.mq.stats.LatencyHistogram;
+import net.l1nkstryk3r.mq.trace.BeamTraceRecorder;
+import net.l1nkstryk3r.mq.trace.BeamTraceReplay;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The mod's operator commands, all under {@code /mq}.
+ * <ul>
+ *     <li>{@code /mq stats [dimension]}: beam counters and timings of every level, or of one</li>
+ *     <li>{@code /mq stats reset}: starts every level's counters over</li>
+ *     <li>{@code /mq trace start <name>} / {@code /mq trace stop}: records shots and hits into a trace file</li>
+ *     <li>{@code /mq replay <name>} / {@code /mq replay stop}: replays a trace with fake players and reports the load</li>
+ *     <li>{@code /mq reload}: reads the config file again and applies it without a restart</li>
+ * </ul>
+ */
+public class ModCommands {
+    // same level as most vanilla server admin commands
+    private static final int PERMISSION_LEVEL = 2;
+
+    /**
+     * Registers the commands.
+     * Called once from the mod initializer.
+     */
+    public static void initialize() {
+        CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> register(dispatcher));
+    }
+
+    private static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("mq")
+            .requires(source -> source.hasPermission(PERMISSION_LEVEL))
+            .then(Commands.literal("stats")
+                .executes(ModCommands::statsAll)
+                .then(Commands.literal("reset").executes(ModCommands::statsReset))
+                .then(Commands.argument("dimension", DimensionArgument.dimension()).executes(ModCommands::statsOne))
+            )
+            .then(Commands.literal("reload").executes(ModCommands::reload))
+            .then(Commands.literal("trace")
+                .then(Commands.literal("start")
+                    .then(Commands.argument("name", StringArgumentType.word()).executes(ModCommands::traceStart)))
+                .then(Commands.literal("stop").executes(ModCommands::traceStop))
+            )
+            .then(Commands.literal("replay")
+                .then(Commands.literal("stop").executes(ModCommands::replayStop))
+                .then(Commands.argument("name", StringArgumentType.word()).executes(ModCommands::replayStart))
+            )
+        );
+    }
+
+    private static int statsAll(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        if (!checkInstrumentation(source)) return 0;
+
+        int levels = 0;
+        for (ServerLevel level : source.getServer().getAllLevels()) {
+            reportStats(source, level);
+            levels++;
+        }
+        return levels;
+    }
+
+    private static int statsOne(CommandContext<CommandSourceStack> context) throws CommandSyntaxException {
+        CommandSourceStack source = context.getSource();
+        if (!checkInstrumentation(source)) return 0;
+
+        reportStats(source, DimensionArgument.getDimension(context, "dimension"));
+        return 1;
+    }
+
+    private static int statsReset(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        for (ServerLevel level : source.getServer().getAllLevels()) {
+            BeamManager.get(level).stats().reset();
+        }
+        source.sendSuccess(() -> Component.literal("Beam stats reset"), true);
+        return 1;
+    }
+
+    private static int reload(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        List<String> errors = ModConfig.reload();
+        if (!errors.isEmpty()) {
+            source.sendFailure(Component.literal("Config not reloaded, the current settings stay:"));
+            for (String error : errors) {
+                source.sendFailure(Component.literal("  " + error));
+            }
+            return 0;
+        }
+        // clients predict with the server's tuning, keep them in step
+        for (ServerPlayer player : source.getServer().getPlayerList().getPlayers()) {
+            BeamPredictions.syncTuning(player);
+        }
+        source.sendSuccess(() -> Component.literal("Config reloaded, new beams use the new settings"), true);
+        return 1;
+    }
+
+    private static int traceStart(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        String name = StringArgumentType.getString(context, "name");
+        try {
+            BeamTraceRecorder.start(name, source.getServer().getTickCount());
+        } catch (IOException e) {
+            L1nksMasterQuest.LOGGER.error("Failed to start beam trace {}", name, e);
+            source.sendFailure(Component.literal("Could not create trace " + name + ": " + e.getMessage()));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Recording beam trace " + name), true);
+        return 1;
+    }
+
+    private static int traceStop(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        long records = BeamTraceRecorder.stop();
+        if (records < 0) {
+            source.sendFailure(Component.literal("No beam trace is being recorded"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Stopped beam trace after " + records + " records"), true);
+        return 1;
+    }
+
+    private static int replayStart(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        String name = StringArgumentType.getString(context, "name");
+        int shots;
+        try {
+            shots = BeamTraceReplay.start(source.getServer(), name, source, false);
+        } catch (IOException e) {
+            source.sendFailure(Component.literal("Could not read trace " + name + ": " + e.getMessage()));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Replaying beam trace " + name + " (" + shots + " shots)"), true);
+        return shots;
+    }
+
+    private static int replayStop(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        if (!BeamTraceReplay.stop()) {
+            source.sendFailure(Component.literal("No beam trace is being replayed"));
+            return 0;
+        }
+        source.sendSuccess(() -> Component.literal("Stopped beam trace replay"), true);
+        return 1;
+    }
+
+    /** Tells the source if instrumentation is off, since every number would be zero. */
+    private static boolean checkInstrumentation(CommandSourceStack source) {
+        if (BeamStats.enabled()) return true;
+        source.sendFailure(Component.literal("Beam instrumentation is off, set \"instrumentation\" to true in the config"));
+        return false;
+    }
+
+    private static void reportStats(CommandSourceStack source, ServerLevel level) {
+        BeamManager manager = BeamManager.get(level);
+        BeamStats stats = manager.stats();
+
+        source.sendSuccess(() -> Component.literal(level.dimension().location().toString()).withStyle(ChatFormatting.GOLD), false);
+        send(source, "alive %d (%d pooled), spawned %d, expired %d",
+            manager.admission().liveBeams(), manager.liveCount(), stats.spawned(), stats.expired());
+        send(source, "hits: %d entity, %d block",
+            stats.entityHits(), stats.blockHits());
+        send(source, "packets: %d (%.2f per beam)",
+            stats.packets(), stats.packetsPerBeam());
+        send(source, "late path solves: %d", stats.lateSolves());
+        send(source, "far beam ticks skipped: %d", stats.lodSkips());
+        send(source, "left the loaded chunks: %d", stats.boundaryExits());
+        sendTimings(source, "tick", stats.tickTime());
+        sendTimings(source, "entity tick", stats.entityTickTime());
+        sendTimings(source, "entity hit", stats.entityHitTime());
+        sendTimings(source, "block hit", stats.blockHitTime());
+    }
+
+    private static void sendTimings(CommandSourceStack source, String name, LatencyHistogram histogram) {
+        if (histogram.count() == 0) return;
+        send(source, "%s: n=%d mean %s p50 %s p99 %s max %s",
+            name, histogram.count(),
+            micros(histogram.meanNanos()),
+            micros(histogram.percentileNanos(50)),
+            micros(histogram.percentileNanos(99)),
+            micros(histogram.maxNanos()));
+    }
+
+    private static void send(CommandSourceStack source, String format, Object... args) {
+        String line = "  " + String.format(Locale.ROOT, format, args);
+        source.sendSuccess(() -> Component.literal(line), false);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.1fus", nanos / 1000.0);
+    }
+}
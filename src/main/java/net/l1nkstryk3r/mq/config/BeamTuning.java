@@ -0,0 +1,112 @@
+package net.l1nkstryk3r.mq.config;
+
+import java.util.List;
+
+/**
+ * One validated, immutable set of beam tuning values, built from a {@link ModConfig.Beams} profile.
+ * <p>
+ *     Everything is a final field, so code on the hot path reads it directly without any lookups.
+ *     A reload never changes an existing instance; it builds new ones and swaps the whole config.
+ * </p>
+ * <p>
+ *     {@link #hitboxSize}, {@link #updateIntervalTicks} and the entity part of {@link #trackingRangeChunks}
+ *     are baked into the beam entity type when it is registered, so they are only read from the default
+ *     profile at startup. Everything else applies to the next beam fired after a reload.
+ * </p>
+ */
+public final class BeamTuning {
+    /** The built-in values, as if the config file were empty. */
+    public static final BeamTuning DEFAULTS = new BeamTuning(new ModConfig.Beams());
+
+    // === limits the config values are checked against ===
+    private static final int MAX_LIFETIME_TICKS = 20 * 60;
+    private static final float MAX_SPEED = 10.0f;
+    private static final int MAX_COOLDOWN_TICKS = 20 * 60;
+    private static final int MAX_TRACKING_RANGE_CHUNKS = 32;
+    private static final int MAX_UPDATE_INTERVAL_TICKS = 100;
+    private static final float MAX_HITBOX_SIZE = 4.0f;
+    private static final int MAX_PIERCE = 64;
+    private static final int MAX_VOLLEY_RAYS = 16;
+    private static final float MAX_VOLLEY_SPREAD = 30.0f;
+    private static final float MAX_LOD_DISTANCE = 512.0f;
+    private static final int MAX_LOD_INTERVAL_TICKS = 20;
+
+    public final int lifetimeTicks;
+    public final float damage;
+    public final float speed;
+    public final int cooldownTicks;
+    public final int trackingRangeChunks;
+    public final int updateIntervalTicks;
+    public final float hitboxSize;
+    public final int maxPierce;
+    public final int volleyRays;
+    public final float volleySpread;
+    public final float lodDistance;
+    public final int lodIntervalTicks;
+
+    // === derived ===
+    /** Horizontal distance in blocks within which players are told about a new beam. */
+    public final double syncRange;
+    /** Same for early end packets: a beam can have moved away from where it was fired by the time it ends. */
+    public final double endSyncRange;
+
+    private BeamTuning(ModConfig.Beams beams) {
+        lifetimeTicks = beams.lifetimeTicks;
+        damage = beams.damage;
+        speed = beams.speed;
+        cooldownTicks = beams.cooldownTicks;
+        trackingRangeChunks = beams.trackingRangeChunks;
+        updateIntervalTicks = beams.updateIntervalTicks;
+        hitboxSize = beams.hitboxSize;
+        maxPierce = beams.maxPierce;
+        volleyRays = beams.volleyRays;
+        volleySpread = beams.volleySpread;
+        lodDistance = beams.lodDistance;
+        lodIntervalTicks = beams.lodIntervalTicks;
+
+        syncRange = trackingRangeChunks * 16.0;
+        endSyncRange = syncRange + lifetimeTicks * speed;
+    }
+
+    /**
+     * Checks a profile and builds its tuning.
+     *
+     * @param profile Name of the profile, used in error messages
+     * @param errors Receives a message for every invalid value
+     * @return the tuning, or null if any value was invalid
+     */
+    static BeamTuning validate(ModConfig.Beams beams, String profile, List<String> errors) {
+        int before = errors.size();
+
+        check(beams.lifetimeTicks >= 1 && beams.lifetimeTicks <= MAX_LIFETIME_TICKS,
+            profile, "lifetimeTicks", "between 1 and " + MAX_LIFETIME_TICKS, errors);
+        check(Float.isFinite(beams.damage) && beams.damage >= 0.0f,
+            profile, "damage", "0 or more", errors);
+        check(beams.speed > 0.0f && beams.speed <= MAX_SPEED,
+            profile, "speed", "above 0 and at most " + MAX_SPEED, errors);
+        check(beams.cooldownTicks >= 0 && beams.cooldownTicks <= MAX_COOLDOWN_TICKS,
+            profile, "cooldownTicks", "between 0 and " + MAX_COOLDOWN_TICKS, errors);
+        check(beams.trackingRangeChunks >= 1 && beams.trackingRangeChunks <= MAX_TRACKING_RANGE_CHUNKS,
+            profile, "trackingRangeChunks", "between 1 and " + MAX_TRACKING_RANGE_CHUNKS, errors);
+        check(beams.updateIntervalTicks >= 1 && beams.updateIntervalTicks <= MAX_UPDATE_INTERVAL_TICKS,
+            profile, "updateIntervalTicks", "between 1 and " + MAX_UPDATE_INTERVAL_TICKS, errors);
+        check(beams.hitboxSize > 0.0f && beams.hitboxSize <= MAX_HITBOX_SIZE,
+            profile, "hitboxSize", "above 0 and at most " + MAX_HITBOX_SIZE, errors);
+        check(beams.maxPierce >= 0 && beams.maxPierce <= MAX_PIERCE,
+            profile, "maxPierce", "between 0 and " + MAX_PIERCE, errors);
+        check(beams.volleyRays >= 1 && beams.volleyRays <= MAX_VOLLEY_RAYS,
+            profile, "volleyRays", "between 1 and " + MAX_VOLLEY_RAYS, errors);
+        check(beams.volleySpread >= 0.0f && beams.volleySpread <= MAX_VOLLEY_SPREAD,
+            profile, "volleySpread", "between 0 and " + MAX_VOLLEY_SPREAD, errors);
+        check(beams.lodDistance > 0.0f && beams.lodDistance <= MAX_LOD_DISTANCE,
+            profile, "lodDistance", "above 0 and at most " + MAX_LOD_DISTANCE, errors);
+        check(beams.lodIntervalTicks >= 1 && beams.lodIntervalTicks <= MAX_LOD_INTERVAL_TICKS,
+            profile, "lodIntervalTicks", "between 1 and " + MAX_LOD_INTERVAL_TICKS, errors);
+
+        return errors.size() == before ? new BeamTuning(beams) : null;
+    }
+
+    private static void check(boolean valid, String profile, String name, String expected, List<String> errors) {
+        if (!valid) errors.add(profile + "." + name + " must be " + expected);
+    }
+}
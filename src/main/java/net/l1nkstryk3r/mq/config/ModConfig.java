@@ -0,0 +1,267 @@
+package net.l1nkstryk3r.mq.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import net.fabricmc.loader.api.FabricLoader;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.minecraft.ResourceLocationException;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.Level;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The mod's settings, stored as JSON in the game's config folder.
+ * <p>
+ *     Missing files are created with the defaults below, and missing entries keep their default,
+ *     so server owners only need to write the values they want to change.
+ * </p>
+ * <p>
+ *     A loaded config is never modified. {@link #reload()} reads and validates the file into a new
+ *     instance and swaps it in with a single volatile write, so readers see either the old settings or
+ *     the new ones, never a mix. Invalid files are rejected as a whole and the current settings stay.
+ * </p>
+ */
+public class ModConfig {
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Path PATH = FabricLoader.getInstance().getConfigDir().resolve(L1nksMasterQuest.MOD_ID + ".json");
+
+    private static volatile ModConfig instance = new ModConfig().build(new ArrayList<>());
+
+    // === settings ===
+    public Admission admission = new Admission();
+    // beam counters, timings and JFR events for /mq stats, see BeamStats
+    public boolean instrumentation = true;
+    // solve beam paths on worker threads from block snapshots, see BeamPathSolver. off by default: each shot
+    // copies whole chunk sections on the server thread, which isn't shown to cost less than solving there
+    public boolean asyncBeamPaths = false;
+    public Beams beams = new Beams();
+    // per-dimension changes to the beams profile above, keyed by dimension id, e.g. "minecraft:the_nether".
+    // only the values that differ need to be given, the rest come from "beams". keys that aren't beams settings are errors.
+    public Map<String, JsonObject> dimensions = new LinkedHashMap<>();
+    public Render render = new Render();
+    public Tracking tracking = new Tracking();
+
+    // === validated tuning, built on load and never written to the file ===
+    private transient BeamTuning defaultTuning;
+    private transient Map<ResourceKey<Level>, BeamTuning> dimensionTuning;
+
+    /** Limits on how many beams may be alive at once, see {@code BeamAdmission}. */
+    public static class Admission {
+        public int maxBeamsPerLevel = 512;
+        public int maxBeamsPerRegion = 96;
+        // a volley counts as one beam per ray
+        public int maxBeamsPerPlayer = 8;
+        public int regionSizeChunks = 4;
+        // above this average tick time (ms) the caps above start shrinking
+        public float msptThreshold = 45.0f;
+        // the caps never shrink below this fraction of their configured value
+        public float minCapScale = 0.25f;
+    }
+
+    /** A beam tuning profile, validated into a {@link BeamTuning}. */
+    public static class Beams {
+        public int lifetimeTicks = 40;
+        public float damage = 10.0f;
+        // starting speed in blocks per tick
+        public float speed = 0.75f;
+        // after a successful shot
+        public int cooldownTicks = 20;
+        public int trackingRangeChunks = 4;
+        // entity beams only, <10 causes de-sync with collision and hit detection
+        public int updateIntervalTicks = 10;
+        // entity beams only, width and height of the entity's box
+        public float hitboxSize = 0.5f;
+        // how many entities one beam passes through, the next entity it hits stops it.
+        // a beam damages each entity at most once.
+        public int maxPierce = 4;
+        // sneak + use fires a volley: this many rays fanned out sideways, this many degrees apart
+        public int volleyRays = 3;
+        public float volleySpread = 6.0f;
+        // beams farther than lodDistance blocks from every living entity are only stepped every
+        // lodIntervalTicks ticks, covering the skipped ticks in one longer step. 1 steps every beam every tick
+        public float lodDistance = 48.0f;
+        public int lodIntervalTicks = 4;
+    }
+
+    /**
+     * Client-side beam level of detail, by distance from the camera in blocks.
+     * Full detail up to {@code nearDistance}, one camera-facing plane up to {@code midDistance},
+     * a thin streak up to {@code farDistance}, and nothing beyond. Set two of them equal to skip a tier.
+     * <p>
+     *     Read from the client's own config file, never from the server. {@code /mq reload} only reaches them
+     *     in singleplayer or on a LAN host, where the command reloads the file the client reads; a reload on a
+     *     dedicated server changes nothing on the clients connected to it.
+     * </p>
+     */
+    public static class Render {
+        public float nearDistance = 24.0f;
+        public float midDistance = 48.0f;
+        public float farDistance = 96.0f;
+    }
+
+    /**
+     * Which players are sent a beam, see {@code BeamTracking}.
+     * A player gets a beam if its path passes within the profile's {@code trackingRangeChunks} of them,
+     * and, beyond {@code alwaysDistance}, only if part of the path is within {@code viewAngle} degrees
+     * of where they are looking.
+     */
+    public static class Tracking {
+        public float alwaysDistance = 16.0f;
+        public float viewAngle = 75.0f;
+        // above this many players in a level, or this many beam packets per tick, the range shrinks
+        public int crowdPlayers = 16;
+        public int packetBudgetPerTick = 400;
+        // the range never shrinks below this fraction of its configured value
+        public float minRangeScale = 0.35f;
+    }
+
+    /** @return the currently loaded settings */
+    public static ModConfig get() {
+        return instance;
+    }
+
+    /** @return the tuning of dimensions without a profile of their own */
+    public BeamTuning defaultTuning() {
+        return defaultTuning;
+    }
+
+    /**
+     * Looks up a dimension's tuning. This is a map lookup, so callers on the hot path should cache the
+     * result for as long as {@link #get()} keeps returning the same config.
+     */
+    public BeamTuning tuning(ResourceKey<Level> dimension) {
+        return dimensionTuning.getOrDefault(dimension, defaultTuning);
+    }
+
+    /**
+     * Reads the config file, writing the defaults first if it doesn't exist yet.
+     * Called once from the mod initializer.
+     */
+    public static void load() {
+        if (Files.exists(PATH)) {
+            List<String> errors = reload();
+            for (String error : errors) {
+                L1nksMasterQuest.LOGGER.error("Invalid config {}: {}, using defaults", PATH, error);
+            }
+        } else {
+            try (Writer writer = Files.newBufferedWriter(PATH)) {
+                GSON.toJson(instance, writer);
+            } catch (IOException e) {
+                L1nksMasterQuest.LOGGER.error("Failed to write default config to {}", PATH, e);
+            }
+        }
+    }
+
+    /**
+     * Reads and validates the config file, and swaps it in if it is valid.
+     *
+     * @return every problem found; if there are any, the current settings were kept
+     */
+    public static List<String> reload() {
+        List<String> errors = new ArrayList<>();
+        ModConfig loaded;
+        try (Reader reader = Files.newBufferedReader(PATH)) {
+            loaded = GSON.fromJson(reader, ModConfig.class);
+        } catch (IOException | JsonParseException e) {
+            L1nksMasterQuest.LOGGER.error("Failed to read {}", PATH, e);
+            errors.add("could not read " + PATH.getFileName() + ": " + e.getMessage());
+            return errors;
+        }
+        if (loaded == null) loaded = new ModConfig();
+
+        ModConfig built = loaded.build(errors);
+        if (built != null) instance = built;
+        return errors;
+    }
+
+    /**
+     * Fills in sections missing from the file, then validates every value and builds the tuning profiles.
+     *
+     * @return this config, or null if anything was invalid
+     */
+    private ModConfig build(List<String> errors) {
+        if (admission == null) admission = new Admission();
+        if (beams == null) beams = new Beams();
+        if (dimensions == null) dimensions = new LinkedHashMap<>();
+        if (render == null) render = new Render();
+        if (tracking == null) tracking = new Tracking();
+
+        validateAdmission(errors);
+        validateRender(errors);
+        validateTracking(errors);
+        defaultTuning = BeamTuning.validate(beams, "beams", errors);
+
+        JsonObject base = GSON.toJsonTree(beams).getAsJsonObject();
+        Map<ResourceKey<Level>, BeamTuning> byDimension = new HashMap<>();
+        for (Map.Entry<String, JsonObject> entry : dimensions.entrySet()) {
+            String profile = "dimensions." + entry.getKey();
+            ResourceKey<Level> dimension;
+            try {
+                dimension = ResourceKey.create(Registries.DIMENSION, new ResourceLocation(entry.getKey()));
+            } catch (ResourceLocationException e) {
+                errors.add(profile + " is not a valid dimension id");
+                continue;
+            }
+
+            // start from the default profile and apply the dimension's changes on top
+            JsonObject merged = base.deepCopy();
+            if (entry.getValue() != null) {
+                for (Map.Entry<String, JsonElement> value : entry.getValue().entrySet()) {
+                    // Gson skips names it doesn't know, so a misspelled key would quietly leave the default in force
+                    if (!base.has(value.getKey())) {
+                        errors.add(profile + "." + value.getKey() + " is not a beams setting");
+                        continue;
+                    }
+                    merged.add(value.getKey(), value.getValue());
+                }
+            }
+            try {
+                BeamTuning tuning = BeamTuning.validate(GSON.fromJson(merged, Beams.class), profile, errors);
+                if (tuning != null) byDimension.put(dimension, tuning);
+            } catch (JsonParseException e) {
+                errors.add(profile + " could not be read: " + e.getMessage());
+            }
+        }
+        dimensionTuning = Map.copyOf(byDimension);
+
+        return errors.isEmpty() ? this : null;
+    }
+
+    private void validateRender(List<String> errors) {
+        if (!(render.nearDistance >= 0.0f)) errors.add("render.nearDistance must be 0 or more");
+        if (!(render.midDistance >= render.nearDistance)) errors.add("render.midDistance must be at least render.nearDistance");
+        if (!(render.farDistance >= render.midDistance)) errors.add("render.farDistance must be at least render.midDistance");
+    }
+
+    private void validateTracking(List<String> errors) {
+        if (!(tracking.alwaysDistance >= 0.0f)) errors.add("tracking.alwaysDistance must be 0 or more");
+        if (!(tracking.viewAngle > 0.0f && tracking.viewAngle <= 180.0f)) errors.add("tracking.viewAngle must be above 0 and at most 180");
+        if (tracking.crowdPlayers < 1) errors.add("tracking.crowdPlayers must be at least 1");
+        if (tracking.packetBudgetPerTick < 1) errors.add("tracking.packetBudgetPerTick must be at least 1");
+        if (!(tracking.minRangeScale > 0.0f && tracking.minRangeScale <= 1.0f)) errors.add("tracking.minRangeScale must be above 0 and at most 1");
+    }
+
+    private void validateAdmission(List<String> errors) {
+        if (admission.maxBeamsPerLevel < 1) errors.add("admission.maxBeamsPerLevel must be at least 1");
+        if (admission.maxBeamsPerRegion < 1) errors.add("admission.maxBeamsPerRegion must be at least 1");
+        if (admission.maxBeamsPerPlayer < 1) errors.add("admission.maxBeamsPerPlayer must be at least 1");
+        if (admission.regionSizeChunks < 1) errors.add("admission.regionSizeChunks must be at least 1");
+        if (!(admission.msptThreshold > 0.0f)) errors.add("admission.msptThreshold must be above 0");
+        if (!(admission.minCapScale > 0.0f && admission.minCapScale <= 1.0f)) errors.add("admission.minCapScale must be above 0 and at most 1");
+    }
+}
@@ -1,17 +1,26 @@
 package net.l1nkstryk3r.mq.entity;
 
-import net.minecraft.core.particles.ParticleTypes;
+import it.unimi.dsi.fastutil.ints.IntArraySet;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.beam.BeamAdmission;
+import net.l1nkstryk3r.mq.beam.BeamHits;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamMotion;
+import net.l1nkstryk3r.mq.beam.BeamTrajectory;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import net.l1nkstryk3r.mq.stats.BeamStats;
+import net.minecraft.network.syncher.EntityDataAccessor;
+import net.minecraft.network.syncher.EntityDataSerializers;
+import net.minecraft.network.syncher.SynchedEntityData;
 import net.minecraft.server.level.ServerLevel;
-import net.minecraft.sounds.SoundEvents;
-import net.minecraft.sounds.SoundSource;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityType;
-import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.entity.projectile.ThrowableProjectile;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.EntityHitResult;
 import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.Vec3;
 
 /**
  * The custom entity class representing the Master Sword's beam attack.
@@ -25,8 +34,17 @@ import net.minecraft.world.phys.HitResult;
  * </p>
  */
 public class MasterSwordBeamEntity extends ThrowableProjectile {
-    private static final int LIFETIME_TICKS = 40;
-    private static final float DAMAGE = 10.0f;
+    // lifetime the beam was fired with, synced so the client fades it out over the same time
+    private static final EntityDataAccessor<Integer> DATA_LIFETIME = SynchedEntityData.defineId(MasterSwordBeamEntity.class, EntityDataSerializers.INT);
+
+    // the live-beam counts this beam was admitted under, given back when it leaves the level
+    private boolean admitted;
+    private int admittedOwner;
+    private long admittedRegion;
+
+    // entities this beam may still pass through, and the ids of those it already hit (null before the first)
+    private int pierceLeft = BeamTuning.DEFAULTS.maxPierce;
+    private IntArraySet hitIds;
 
     /** Standard constructor used internally by the game when spawning from saved data. */
     public MasterSwordBeamEntity(EntityType<? extends MasterSwordBeamEntity> type, Level world) {
@@ -36,50 +54,57 @@ public class MasterSwordBeamEntity extends ThrowableProjectile {
     /** Called every tick (20x per second). */
     @Override
     public void tick() {
+        // only the server keeps beam stats
+        BeamManager manager = level() instanceof ServerLevel serverLevel ? BeamManager.get(serverLevel) : null;
+        BeamStats stats = manager != null ? manager.stats() : null;
+        long start = stats != null ? stats.startTimer() : 0L;
+
+        // the projectile raycast reads blocks from the level, which would load a chunk this tick's motion reaches
+        Vec3 motion = getDeltaMovement();
+        if (manager != null && manager.chunkView().clearFraction(getX(), getZ(), getX() + motion.x, getZ() + motion.z) <= 1.0) {
+            stats.recordBoundaryExit();
+            L1nksMasterQuest.LOGGER.debug("Beam entity {} in {} left the loaded chunks at {}, {}, {}",
+                getId(), level().dimension().location(), getX(), getY(), getZ());
+            discard();
+            stats.recordEntityTick(start);
+            return;
+        }
+
         super.tick();
 
         // Despawn after a fixed time to avoid infinite entities
-        if (tickCount > LIFETIME_TICKS) discard();
+        if (isAlive() && tickCount > getLifetime()) {
+            if (stats != null) stats.recordExpired();
+            discard();
+        }
+        if (stats != null) stats.recordEntityTick(start);
     }
 
     /**
      * Triggered when the beam collides with something (entity or block).
+     * <p>
+     *     The actual hit rules live in {@link BeamHits} so the pooled beam engine behaves the same way.
+     * </p>
      */
     @Override
     protected void onHit(HitResult hitResult) {
         super.onHit(hitResult);
 
-        if (!level().isClientSide) {
+        if (level() instanceof ServerLevel serverLevel) {
             switch (hitResult.getType()) {
-                // When hitting an entity
+                // When hitting an entity, damage it and keep flying until out of pierce
                 case ENTITY -> {
-                    EntityHitResult entityHit = (EntityHitResult) hitResult;
-                    Entity target = entityHit.getEntity();
-
-                    // Prevent self-hits (ignore hitting the shooter)
-                    if (target == getOwner()) return;
-
-                    if (target instanceof LivingEntity livingTarget && getOwner() instanceof Player playerOwner) {
-                        // Deal direct damage
-                        livingTarget.hurt(level().damageSources().playerAttack(playerOwner), DAMAGE);
-
-                        createParticles();
-
-                        // Play a hit sound effect
-                        level().playSound(
-                            null,                               // audible to all players
-                            blockPosition(),                    // Plays at impact location
-                            SoundEvents.AMETHYST_BLOCK_HIT,     // built-in sound for "magical impact" vibe
-                            SoundSource.PLAYERS,                // Categorized as a player-based SE
-                            0.8f,                               // Volume
-                            1.4f                                // Pitch
-                        );
+                    Entity target = ((EntityHitResult) hitResult).getEntity();
+                    if (BeamHits.hitEntity(serverLevel, getOwner(), target, getX(), getY(), getZ())) {
+                        if (hitIds == null) hitIds = new IntArraySet();
+                        hitIds.add(target.getId());
+                        if (pierceLeft-- == 0) discard();
                     }
                 }
 
                 // When hitting a block, simply despawn
                 case BLOCK -> {
-                    createParticles();
+                    BeamHits.hitBlock(serverLevel, getX(), getY(), getZ());
                     discard();
                 }
 
@@ -89,32 +114,73 @@ public class MasterSwordBeamEntity extends ThrowableProjectile {
         }
     }
 
+    /** Same as any projectile, except entities this beam already hit are passed through. */
+    @Override
+    protected boolean canHitEntity(Entity target) {
+        if (hitIds != null && hitIds.contains(target.getId())) return false;
+        return super.canHitEntity(target);
+    }
+
+    /**
+     * Sends the beam only to players its remaining path passes near, like pooled beams, see
+     * {@link net.l1nkstryk3r.mq.beam.BeamTracking}. Vanilla's tracking range (from {@code ModEntities})
+     * still applies on top.
+     */
+    @Override
+    public boolean broadcastToPlayer(ServerPlayer player) {
+        if (!(level() instanceof ServerLevel serverLevel)) return true;
+
+        Vec3 motion = getDeltaMovement();
+        double speed = motion.length();
+        if (speed < 1.0E-7) return true;
+
+        BeamManager manager = BeamManager.get(serverLevel);
+        double length = BeamTrajectory.remainingLength(speed, tickCount, getLifetime());
+        return manager.tracking().shouldSend(player, getX(), getY(), getZ(),
+            motion.x / speed, motion.y / speed, motion.z / speed, length, manager.tuning().syncRange);
+    }
+
     /**
      * Smooths out projectile motion interpolation between server updates.
      * Helps avoid choppy-looking movement on the client
      */
     @Override
     public void lerpMotion(double x, double y, double z) {
-        setDeltaMovement(getDeltaMovement().add(
-            (x - getDeltaMovement().x) * 0.5,
-            (y - getDeltaMovement().y) * 0.5,
-            (z - getDeltaMovement().z) * 0.5
-        ));
+        setDeltaMovement(BeamMotion.lerpTowards(getDeltaMovement(), x, y, z));
+    }
+
+    /** @return how many ticks this beam lives */
+    public int getLifetime() {
+        return entityData.get(DATA_LIFETIME);
+    }
+
+    /** Sets how many ticks this beam lives, from the level's tuning when it is fired. */
+    public void setLifetime(int lifetimeTicks) {
+        entityData.set(DATA_LIFETIME, lifetimeTicks);
+    }
+
+    /** Sets how many entities this beam passes through, from the level's tuning when it is fired. */
+    public void setMaxPierce(int maxPierce) {
+        pierceLeft = maxPierce;
+    }
+
+    /** Remembers which admission counts this beam occupies. */
+    public void setAdmission(int ownerId, long region) {
+        admitted = true;
+        admittedOwner = ownerId;
+        admittedRegion = region;
+    }
+
+    /** Gives back this beam's admission counts, at most once. */
+    public void releaseAdmission(BeamAdmission admission) {
+        if (!admitted) return;
+        admitted = false;
+        admission.release(admittedOwner, admittedRegion);
     }
 
-    /** No synced data parameters needed for this simple projectile. */
+    /** The only synced value is the lifetime, everything else is vanilla projectile state. */
     @Override
-    protected void defineSynchedData() {}
-
-    /** Helper to create impact particles */
-    private void createParticles() {
-        // Create glowing particle explosion at impact
-        ((ServerLevel) level()).sendParticles(
-            ParticleTypes.GLOW,
-            getX(), getY(), getZ(),
-            15,                         // number of particles
-            0.2, 0.2, 0.2,              // x,y,z random offset in blocks
-            0.05                        // spread velocity multiplier
-        );
+    protected void defineSynchedData() {
+        entityData.define(DATA_LIFETIME, BeamTuning.DEFAULTS.lifetimeTicks);
     }
 }
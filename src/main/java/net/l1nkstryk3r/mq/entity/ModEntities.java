@@ -1,6 +1,8 @@
 package net.l1nkstryk3r.mq.entity;
 
 import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.config.BeamTuning;
+import net.l1nkstryk3r.mq.config.ModConfig;
 import net.l1nkstryk3r.mq.util.ModUtils;
 import net.minecraft.core.Registry;
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -19,11 +21,8 @@ import net.minecraft.world.entity.MobCategory;
  * </p>
  */
 public class ModEntities {
-    // === entity constants ===
-    private static final float BEAM_WIDTH = 0.5f;
-    private static final float BEAM_HEIGHT = 0.5f;
-    private static final int BEAM_TRACKING_RANGE = 4; // in chunks
-    private static final int BEAM_UPDATE_INTERVAL = 10; // <10 causes de-sync with collision and hit detection
+    // === entity settings, from the default beam profile since entity types can't change once registered ===
+    private static final BeamTuning BEAM_TUNING = ModConfig.get().defaultTuning();
 
     // Public reference to the custom entity type
     // Allows us to spawn it anywhere in the code (e.g., in the Master Sword's use() method).
@@ -37,9 +36,9 @@ public class ModEntities {
     public static final EntityType<MasterSwordBeamEntity> MASTER_SWORD_BEAM = register(
         "master_sword_beam",
         EntityType.Builder.of(MasterSwordBeamEntity::new, MobCategory.MISC)
-            .sized(BEAM_WIDTH, BEAM_HEIGHT)
-            .clientTrackingRange(BEAM_TRACKING_RANGE)
-            .updateInterval(BEAM_UPDATE_INTERVAL)
+            .sized(BEAM_TUNING.hitboxSize, BEAM_TUNING.hitboxSize)
+            .clientTrackingRange(BEAM_TUNING.trackingRangeChunks)
+            .updateInterval(BEAM_TUNING.updateIntervalTicks)
             .noSave()
     );
 
@@ -1,8 +1,18 @@
 package net.l1nkstryk3r.mq.item;
 
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.beam.BeamAdmission;
+import net.l1nkstryk3r.mq.beam.BeamEligibility;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.beam.BeamPredictions;
 import net.l1nkstryk3r.mq.entity.MasterSwordBeamEntity;
 import net.l1nkstryk3r.mq.entity.ModEntities;
+import net.l1nkstryk3r.mq.network.BeamEffectsPacket;
+import net.l1nkstryk3r.mq.trace.BeamTraceRecorder;
 import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.InteractionHand;
@@ -16,6 +26,8 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Locale;
+
 /**
  * The core item class for the Master Sword.
  * <p>
@@ -23,10 +35,15 @@ import org.jetbrains.annotations.NotNull;
  *     <ul>
  *         <li>Custom durability behavior (unbreakable)</li>
  *         <li>Custom projectile firing (beam attack when at full health)</li>
+ *         <li>A volley of fanned-out beams when sneaking</li>
+ *         <li>An enchantment glint while charged, i.e. while a right-click would fire</li>
  *     </ul>
  * </p>
  */
 public class MasterSword extends SwordItem {
+    // short retry delay after a shot is refused by the beam caps
+    private static final int REJECTED_COOLDOWN_TICKS = 5;
+
     /**
      * Standard sword constructor.
      * <p></p>
@@ -57,10 +74,25 @@ public class MasterSword extends SwordItem {
         return false;
     }
 
+    /**
+     * Shows the glint on a sword the local player holds while they can fire, as last told by the server
+     * ({@link BeamEligibility}). Right-clicks without it never reach the server.
+     */
+    @Override
+    public boolean isFoil(ItemStack stack) {
+        return BeamEligibility.isClientCharged(stack) || super.isFoil(stack);
+    }
+
     /**
      * Called when the player right-clicks with the sword.
      * <p>
-     *     Fires a beam projectile if the player is near full health.
+     *     Fires a beam projectile if the player is near full health, or a volley of them while sneaking.
+     *     Clients stop right-clicks that can't fire before calling this, see {@code ClientBeamEligibility},
+     *     so the server is left with the shots that will fire and the odd one a stale client let through.
+     * </p>
+     * <p>
+     *     The shooter's client runs the same checks and shows a predicted beam right away instead of waiting
+     *     for the server, see {@link BeamPredictions}. Only the server's beam can hit anything.
      * </p>
      */
     @Override
@@ -69,43 +101,113 @@ public class MasterSword extends SwordItem {
         ItemStack stack = player.getItemInHand(hand);
 
         // only execute on the server side to avoid spawning duplicates
-        if (!world.isClientSide) {
-            // player must be almost or fully healed
-            // NOTE: this value was adjusted so that it still fires when you appear to be at max health (in the hotbar)
-            //       despite maybe not being at exactly your max health.
-            boolean atFullHealth = player.getHealth() >= (player.getMaxHealth() - 1.0f);
+        if (world instanceof ServerLevel serverLevel) {
+            boolean atFullHealth = BeamEligibility.canFire(player);
+            boolean volley = player.isShiftKeyDown();
+            BeamTraceRecorder.recordFire(serverLevel, player, atFullHealth, volley);
+            // sequence of the client's predicted beam for this shot, 0 if it didn't predict one
+            int prediction = BeamPredictions.claim(player);
+
             if (atFullHealth) {
-                // create the beam entity and shoot it forward
-                MasterSwordBeamEntity beam = new MasterSwordBeamEntity(ModEntities.MASTER_SWORD_BEAM, world);
-                beam.setOwner(player);
-                beam.moveTo(player.getX(), player.getEyeY() - 0.1, player.getZ());
-                beam.setNoGravity(true);
-                beam.shootFromRotation(
-                    player,
-                    player.getXRot(),
-                    player.getYRot(),
-                    0.0F,   // pitch offset
-                    0.75F,  // velocity
-                    0.0F    // inaccuracy (0 = perfectly straight)
-                );
-
-                // add entity to the world and play sound
-                world.addFreshEntity(beam);
-                world.playSound(
-                    null,                           // the Player to exclude, null plays for everyone nearby
-                    player.blockPosition(),         // origin point of the sound (e.g. the player's position)
-                    SoundEvents.ARROW_SHOOT,        // The sound file to play
-                    SoundSource.PLAYERS,            // Determines the category or "channel" of the sound
-                    0.8F,                           // Sound Volume (1.0f Normal)
-                    1.6F                            // Sound Pitch (1.0F normal)
-                );
-
-                // add a short cooldown (prevents spamming)
-                player.getCooldowns().addCooldown(this, 20);
+                // fire through the pooled beam engine, or spawn a real entity in compatibility mode.
+                // volleys only exist in the pooled engine, entity beams always fire a single beam
+                BeamAdmission.Result result;
+                if (BeamManager.ENTITY_COMPAT_MODE) {
+                    result = spawnBeamEntity(serverLevel, player);
+                } else if (volley) {
+                    result = BeamManager.get(serverLevel).fireVolley(player);
+                } else {
+                    result = BeamManager.get(serverLevel).fire(player, prediction);
+                }
+
+                if (result == BeamAdmission.Result.ADMITTED) {
+                    // neither an entity beam nor a volley can take over the predicted beam, they show up on their
+                    // own (a volley's prediction means the client didn't see the sneak yet).
+                    // rejected before the cooldown below, which the reject would clear on the client otherwise
+                    if (BeamManager.ENTITY_COMPAT_MODE || volley) BeamPredictions.reject(player, prediction);
+
+                    // play the firing sound, merged with other shots nearby and sent at the end of the tick
+                    BeamManager.get(serverLevel).effects().add(BeamEffectsPacket.FIRE, player.getX(), player.getY(), player.getZ());
+
+                    // add a short cooldown (prevents spamming)
+                    player.getCooldowns().addCooldown(this, BeamManager.get(serverLevel).tuning().cooldownTicks);
+                } else {
+                    // before rejectShot's retry cooldown, so the client drops its predicted cooldown first
+                    BeamPredictions.reject(player, prediction);
+                    rejectShot(player, result);
+                }
+            } else {
+                BeamPredictions.reject(player, prediction);
+                // nothing happened, so don't show the swing to everyone else either
+                return InteractionResultHolder.fail(stack);
             }
+        } else if (BeamEligibility.canFire(player)) {
+            // show the beam now, the server confirms or rejects it a round trip later.
+            // the prediction also sets the server's cooldown, and only if the server has sent it
+            BeamPredictions.predict(player);
         }
 
         // return success so the animation and cooldown apply correctly
         return InteractionResultHolder.sidedSuccess(stack, world.isClientSide);
     }
+
+    /**
+     * Spawns the beam as a full {@link MasterSwordBeamEntity}.
+     * <p>
+     *     Only used in compatibility mode, see {@link BeamManager#ENTITY_COMPAT_MODE}.
+     *     The beam still counts towards the level's {@link BeamAdmission} caps.
+     * </p>
+     *
+     * @return {@link BeamAdmission.Result#ADMITTED} if the beam was spawned, otherwise why it wasn't
+     */
+    private static BeamAdmission.Result spawnBeamEntity(ServerLevel world, Player player) {
+        double x = player.getX();
+        double z = player.getZ();
+        long region = BeamAdmission.regionOf(x, z);
+
+        // check the caps before paying for an entity
+        BeamManager manager = BeamManager.get(world);
+        BeamAdmission.Result result = manager.admission().tryAdmit(player.getId(), region);
+        if (result != BeamAdmission.Result.ADMITTED) return result;
+
+        // create the beam entity and shoot it forward
+        MasterSwordBeamEntity beam = new MasterSwordBeamEntity(ModEntities.MASTER_SWORD_BEAM, world);
+        beam.setAdmission(player.getId(), region);
+        beam.setLifetime(manager.tuning().lifetimeTicks);
+        beam.setMaxPierce(manager.tuning().maxPierce);
+        beam.setOwner(player);
+        beam.moveTo(x, player.getEyeY() - BeamManager.EYE_OFFSET, z);
+        beam.setNoGravity(true);
+        beam.shootFromRotation(
+            player,
+            player.getXRot(),
+            player.getYRot(),
+            0.0F,                   // pitch offset
+            manager.tuning().speed, // velocity
+            0.0F                    // inaccuracy (0 = perfectly straight)
+        );
+
+        // add entity to the world
+        world.addFreshEntity(beam);
+        manager.stats().recordSpawn(player.getId(), beam.getX(), beam.getY(), beam.getZ(), true);
+        return result;
+    }
+
+    /**
+     * Tells the player their shot was refused because too many beams are alive.
+     * <p>
+     *     Only the shooter gets the message and the fizzle sound, and a brief cooldown
+     *     keeps them from retrying every tick.
+     * </p>
+     */
+    private void rejectShot(Player player, BeamAdmission.Result result) {
+        player.displayClientMessage(
+            Component.translatable("message." + L1nksMasterQuest.MOD_ID + ".beam_rejected." + result.name().toLowerCase(Locale.ROOT)),
+            true    // show above the hotbar instead of in chat
+        );
+        if (player instanceof ServerPlayer serverPlayer) {
+            serverPlayer.playNotifySound(SoundEvents.FIRE_EXTINGUISH, SoundSource.PLAYERS, 0.5F, 1.8F);
+        }
+        player.getCooldowns().addCooldown(this, REJECTED_COOLDOWN_TICKS);
+    }
 }
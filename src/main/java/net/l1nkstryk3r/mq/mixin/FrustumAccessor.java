@@ -0,0 +1,16 @@
+package net.l1nkstryk3r.mq.mixin;
+
+import net.minecraft.client.renderer.culling.Frustum;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Invoker;
+
+/**
+ * Exposes the frustum's box test without the {@code AABB} that {@link Frustum#isVisible} needs,
+ * so beams can be culled every frame without allocating.
+ */
+@Mixin(Frustum.class)
+public interface FrustumAccessor {
+	/** Takes world coordinates, like {@link Frustum#isVisible}. */
+	@Invoker("cubeInFrustum")
+	boolean mq$cubeInFrustum(double minX, double minY, double minZ, double maxX, double maxY, double maxZ);
+}
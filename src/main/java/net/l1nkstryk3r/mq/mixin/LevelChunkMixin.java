@@ -0,0 +1,33 @@
+package net.l1nkstryk3r.mq.mixin;
+
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Tells the level's {@link BeamManager} when a block in a chunk changes,
+ * so beams whose precomputed path crosses that chunk solve it again.
+ */
+@Mixin(LevelChunk.class)
+public abstract class LevelChunkMixin {
+	@Shadow
+	@Final
+	Level level;
+
+	@Inject(at = @At("RETURN"), method = "setBlockState")
+	private void mq$onSetBlockState(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> info) {
+		// a null return means nothing actually changed
+		if (info.getReturnValue() != null && level instanceof ServerLevel serverLevel) {
+			BeamManager.get(serverLevel).onBlockChanged(pos.getX() >> 4, pos.getZ() >> 4);
+		}
+	}
+}
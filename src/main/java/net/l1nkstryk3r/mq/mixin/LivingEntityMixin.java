@@ -0,0 +1,22 @@
+package net.l1nkstryk3r.mq.mixin;
+
+import net.l1nkstryk3r.mq.beam.BeamEligibility;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.LivingEntity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Tells {@link BeamEligibility} when a player's health changes, since firing depends on it.
+ */
+@Mixin(LivingEntity.class)
+public abstract class LivingEntityMixin {
+	@Inject(at = @At("TAIL"), method = "setHealth")
+	private void mq$onSetHealth(float health, CallbackInfo info) {
+		if ((Object) this instanceof ServerPlayer player) {
+			BeamEligibility.update(player);
+		}
+	}
+}
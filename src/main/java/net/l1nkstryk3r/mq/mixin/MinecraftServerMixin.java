@@ -1,15 +1,20 @@
 package net.l1nkstryk3r.mq.mixin;
 
+import net.l1nkstryk3r.mq.beam.BeamWarmup;
 import net.minecraft.server.MinecraftServer;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
+/**
+ * Warms up the beam code while the server loads its levels, see {@link BeamWarmup}.
+ */
 @Mixin(MinecraftServer.class)
-public class ExampleMixin {
+public class MinecraftServerMixin {
 	@Inject(at = @At("HEAD"), method = "loadLevel")
-	private void init(CallbackInfo info) {
-		// This code is injected into the start of MinecraftServer.loadLevel()V
+	private void mq$onLoadLevel(CallbackInfo info) {
+		// still behind the world loading screen, nobody can fire yet
+		BeamWarmup.warmUp();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,33 @@
+package net.l1nkstryk3r.mq.mixin;
+
+import net.l1nkstryk3r.mq.beam.BeamEligibility;
+import net.minecraft.server.level.ServerEntity;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Tells {@link BeamEligibility} when a player's attributes changed, since firing depends on max health.
+ * <p>
+ *     Hooks in where vanilla syncs changed attributes, right before it clears them, so it only runs on
+ *     ticks where some attribute of the player actually changed.
+ * </p>
+ */
+@Mixin(ServerEntity.class)
+public abstract class ServerEntityMixin {
+	@Shadow
+	@Final
+	private Entity entity;
+
+	@Inject(at = @At("HEAD"), method = "sendDirtyEntityData")
+	private void mq$onSendDirtyEntityData(CallbackInfo info) {
+		if (entity instanceof ServerPlayer player && !player.getAttributes().getDirtyAttributes().isEmpty()) {
+			BeamEligibility.update(player);
+		}
+	}
+}
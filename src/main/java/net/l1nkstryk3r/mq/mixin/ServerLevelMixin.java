@@ -0,0 +1,24 @@
+package net.l1nkstryk3r.mq.mixin;
+
+import net.l1nkstryk3r.mq.beam.BeamLevelAccess;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.minecraft.server.level.ServerLevel;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Attaches a {@link BeamManager} to every server level.
+ */
+@Mixin(ServerLevel.class)
+public abstract class ServerLevelMixin implements BeamLevelAccess {
+	@Unique
+	private BeamManager mq$beamManager;
+
+	@Override
+	public BeamManager mq$getBeamManager() {
+		if (mq$beamManager == null) {
+			mq$beamManager = new BeamManager((ServerLevel) (Object) this);
+		}
+		return mq$beamManager;
+	}
+}
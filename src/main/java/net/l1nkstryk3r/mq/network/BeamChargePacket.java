@@ -0,0 +1,26 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: whether the player can fire beams right now, sent only when that changes.
+ * <p>
+ *     The client uses it to stop right-clicks that wouldn't fire before they turn into use-item packets,
+ *     and to show the sword as charged or not, see {@code BeamEligibility}.
+ * </p>
+ *
+ * @param charged True if a right-click with the sword would fire
+ */
+public record BeamChargePacket(boolean charged) {
+    public static final ResourceLocation ID = ModUtils.id("beam_charge");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeBoolean(charged);
+    }
+
+    public static BeamChargePacket read(FriendlyByteBuf buf) {
+        return new BeamChargePacket(buf.readBoolean());
+    }
+}
@@ -0,0 +1,30 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: every beam effect (impacts and firing sounds) near the player this tick, in one packet.
+ * <p>
+ *     Nearby effects of the same kind are already merged on the server, each entry carries how many were
+ *     merged so the client can scale the effect. The client spawns the particles and plays the sounds itself,
+ *     instead of the server sending one particle packet and one sound packet per impact.
+ * </p>
+ * <p>
+ *     Layout: an int entry count, then per entry the kind (byte), position (3 floats) and merged count (var-int).
+ *     Entries are written straight from the server's buffers, see {@code BeamEffects}.
+ * </p>
+ */
+public final class BeamEffectsPacket {
+    public static final ResourceLocation ID = ModUtils.id("beam_effects");
+
+    // === effect kinds ===
+    /** Beam damaged an entity: glow burst and amethyst chime. */
+    public static final byte ENTITY_IMPACT = 0;
+    /** Beam ran into a block: glow burst. */
+    public static final byte BLOCK_IMPACT = 1;
+    /** A beam was fired: arrow whoosh. */
+    public static final byte FIRE = 2;
+
+    private BeamEffectsPacket() {}
+}
@@ -0,0 +1,25 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: a pooled beam stopped before the end of its lifetime (e.g. it hit a block).
+ * <p>
+ *     Beams that simply run out of lifetime don't send this, clients expire them on their own.
+ * </p>
+ *
+ * @param beamId Id from the matching {@link BeamSpawnPacket}
+ */
+public record BeamEndPacket(int beamId) {
+    public static final ResourceLocation ID = ModUtils.id("beam_end");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(beamId);
+    }
+
+    public static BeamEndPacket read(FriendlyByteBuf buf) {
+        return new BeamEndPacket(buf.readVarInt());
+    }
+}
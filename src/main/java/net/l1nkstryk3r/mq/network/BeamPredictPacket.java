@@ -0,0 +1,26 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Client to server: the client is showing a predicted beam for the shot it is about to send.
+ * <p>
+ *     Sent right before the vanilla use-item packet, so the server reads it first and tags the shot's
+ *     {@link BeamSpawnPacket} with the same sequence, or answers with a {@link BeamRejectPacket}.
+ * </p>
+ *
+ * @param sequence Client-chosen id of the predicted beam, never 0
+ */
+public record BeamPredictPacket(int sequence) {
+    public static final ResourceLocation ID = ModUtils.id("beam_predict");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(sequence);
+    }
+
+    public static BeamPredictPacket read(FriendlyByteBuf buf) {
+        return new BeamPredictPacket(buf.readVarInt());
+    }
+}
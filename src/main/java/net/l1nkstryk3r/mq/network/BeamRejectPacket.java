@@ -0,0 +1,22 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: a shot the client predicted was not fired, so its predicted beam should disappear.
+ *
+ * @param sequence Id from the matching {@link BeamPredictPacket}
+ */
+public record BeamRejectPacket(int sequence) {
+    public static final ResourceLocation ID = ModUtils.id("beam_reject");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(sequence);
+    }
+
+    public static BeamRejectPacket read(FriendlyByteBuf buf) {
+        return new BeamRejectPacket(buf.readVarInt());
+    }
+}
@@ -0,0 +1,68 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: a pooled beam was fired.
+ * <p>
+ *     Beams fly in a straight line with fixed drag, so this is everything a client needs
+ *     to simulate the whole flight on its own. No move or velocity updates follow; the only
+ *     other packet a beam can produce is a {@link BeamEndPacket} if it stops early.
+ * </p>
+ *
+ * @param beamId Server-assigned id, used to match the end packet
+ * @param ownerId Entity id of the player who fired
+ * @param spawnTick Level game time the beam was fired on, lets late clients catch up
+ * @param x Origin
+ * @param y Origin
+ * @param z Origin
+ * @param dirX Normalized direction of travel
+ * @param dirY Normalized direction of travel
+ * @param dirZ Normalized direction of travel
+ * @param speed Starting speed in blocks per tick
+ * @param lifetimeTicks How many ticks the beam lives, it can differ per dimension and change on reload
+ * @param prediction Sequence id of the shooter's predicted beam this one replaces, 0 if none.
+ *                   Only the shooter's client has a beam with that sequence, everyone else ignores it.
+ */
+public record BeamSpawnPacket(
+    int beamId,
+    int ownerId,
+    long spawnTick,
+    double x, double y, double z,
+    float dirX, float dirY, float dirZ,
+    float speed,
+    int lifetimeTicks,
+    int prediction
+) {
+    public static final ResourceLocation ID = ModUtils.id("beam_spawn");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(beamId);
+        buf.writeVarInt(ownerId);
+        buf.writeLong(spawnTick);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+        buf.writeFloat(dirX);
+        buf.writeFloat(dirY);
+        buf.writeFloat(dirZ);
+        buf.writeFloat(speed);
+        buf.writeVarInt(lifetimeTicks);
+        buf.writeVarInt(prediction);
+    }
+
+    public static BeamSpawnPacket read(FriendlyByteBuf buf) {
+        return new BeamSpawnPacket(
+            buf.readVarInt(),
+            buf.readVarInt(),
+            buf.readLong(),
+            buf.readDouble(), buf.readDouble(), buf.readDouble(),
+            buf.readFloat(), buf.readFloat(), buf.readFloat(),
+            buf.readFloat(),
+            buf.readVarInt(),
+            buf.readVarInt()
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: the tuning of the player's current dimension that client prediction needs.
+ * <p>
+ *     Sent on join, respawn, dimension change and {@code /mq reload}, so predicted beams and cooldowns
+ *     follow the server's config instead of the client's own. Until it arrives the client doesn't predict.
+ * </p>
+ *
+ * @param speed Starting speed in blocks per tick
+ * @param lifetimeTicks Ticks a beam lives
+ * @param cooldownTicks Cooldown after a successful shot
+ */
+public record BeamTuningPacket(float speed, int lifetimeTicks, int cooldownTicks) {
+    public static final ResourceLocation ID = ModUtils.id("beam_tuning");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeFloat(speed);
+        buf.writeVarInt(lifetimeTicks);
+        buf.writeVarInt(cooldownTicks);
+    }
+
+    public static BeamTuningPacket read(FriendlyByteBuf buf) {
+        return new BeamTuningPacket(buf.readFloat(), buf.readVarInt(), buf.readVarInt());
+    }
+}
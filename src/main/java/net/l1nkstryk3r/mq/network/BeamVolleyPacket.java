@@ -0,0 +1,78 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Server to client: a volley of pooled beams was fired.
+ * <p>
+ *     One packet for the whole volley. The rays all start at the same point and only differ in yaw,
+ *     so clients rebuild every ray's velocity from the shooter's aim with {@code BeamMotion}, exactly
+ *     as the server did. Rays get consecutive beam ids starting at {@code firstBeamId}, and each one
+ *     ends on its own: by lifetime, or with a {@link BeamEndPacket} for its id.
+ * </p>
+ *
+ * @param firstBeamId Server-assigned id of the first ray, the others follow in order
+ * @param ownerId Entity id of the player who fired
+ * @param spawnTick Level game time the volley was fired on, lets late clients catch up
+ * @param x Origin of every ray
+ * @param y Origin of every ray
+ * @param z Origin of every ray
+ * @param xRot Shooter's pitch in degrees
+ * @param yRot Shooter's yaw in degrees, the middle of the fan
+ * @param motionX Motion every ray inherits from the shooter
+ * @param motionY Motion every ray inherits from the shooter
+ * @param motionZ Motion every ray inherits from the shooter
+ * @param speed Starting speed in blocks per tick, before the shooter's motion
+ * @param lifetimeTicks How many ticks each ray lives
+ * @param rays How many rays the volley has
+ * @param spread Degrees between neighbouring rays
+ */
+public record BeamVolleyPacket(
+    int firstBeamId,
+    int ownerId,
+    long spawnTick,
+    double x, double y, double z,
+    float xRot, float yRot,
+    float motionX, float motionY, float motionZ,
+    float speed,
+    int lifetimeTicks,
+    int rays,
+    float spread
+) {
+    public static final ResourceLocation ID = ModUtils.id("beam_volley");
+
+    public void write(FriendlyByteBuf buf) {
+        buf.writeVarInt(firstBeamId);
+        buf.writeVarInt(ownerId);
+        buf.writeLong(spawnTick);
+        buf.writeDouble(x);
+        buf.writeDouble(y);
+        buf.writeDouble(z);
+        buf.writeFloat(xRot);
+        buf.writeFloat(yRot);
+        buf.writeFloat(motionX);
+        buf.writeFloat(motionY);
+        buf.writeFloat(motionZ);
+        buf.writeFloat(speed);
+        buf.writeVarInt(lifetimeTicks);
+        buf.writeVarInt(rays);
+        buf.writeFloat(spread);
+    }
+
+    public static BeamVolleyPacket read(FriendlyByteBuf buf) {
+        return new BeamVolleyPacket(
+            buf.readVarInt(),
+            buf.readVarInt(),
+            buf.readLong(),
+            buf.readDouble(), buf.readDouble(), buf.readDouble(),
+            buf.readFloat(), buf.readFloat(),
+            buf.readFloat(), buf.readFloat(), buf.readFloat(),
+            buf.readFloat(),
+            buf.readVarInt(),
+            buf.readVarInt(),
+            buf.readFloat()
+        );
+    }
+}
@@ -0,0 +1,88 @@
+package net.l1nkstryk3r.mq.network;
+
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.l1nkstryk3r.mq.beam.BeamTracking;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+
+/**
+ * Helpers for sending the mod's custom packets.
+ * <p>
+ *     The packet classes themselves ({@link BeamSpawnPacket}, {@link BeamEndPacket}) only know how to
+ *     read and write their fields, this class decides who receives them.
+ * </p>
+ */
+public class ModPackets {
+    /**
+     * Collects every player in the level within a horizontal range of a point.
+     *
+     * @param level The level whose players may receive the packet
+     * @param x Center of the range
+     * @param z Center of the range
+     * @param range Horizontal distance in blocks
+     * @param out Cleared, then filled with the players found
+     * @return how many players were found
+     */
+    public static int collectNearby(ServerLevel level, double x, double z, double range, List<ServerPlayer> out) {
+        out.clear();
+        double rangeSqr = range * range;
+
+        // indexed, so a beam doesn't cost an iterator
+        List<ServerPlayer> players = level.players();
+        for (int i = 0; i < players.size(); i++) {
+            ServerPlayer player = players.get(i);
+            double dx = player.getX() - x;
+            double dz = player.getZ() - z;
+            if (dx * dx + dz * dz <= rangeSqr) out.add(player);
+        }
+        return out.size();
+    }
+
+    /**
+     * Collects the players {@link BeamTracking} picks for a beam's remaining path.
+     *
+     * @param x Beam position
+     * @param dirX Unit direction of travel
+     * @param length How much further the beam flies, in blocks
+     * @param range Configured range in blocks, before load scaling
+     * @param out Cleared, then filled with the players found
+     * @return how many players were found
+     */
+    public static int collectViewers(ServerLevel level, BeamTracking tracking,
+                                     double x, double y, double z, double dirX, double dirY, double dirZ,
+                                     double length, double range, List<ServerPlayer> out) {
+        out.clear();
+
+        List<ServerPlayer> players = level.players();
+        for (int i = 0; i < players.size(); i++) {
+            ServerPlayer player = players.get(i);
+            if (tracking.shouldSend(player, x, y, z, dirX, dirY, dirZ, length, range)) out.add(player);
+        }
+        return out.size();
+    }
+
+    /**
+     * Sends a packet to players found by {@link #collectNearby} or {@link #collectViewers}.
+     * <p>
+     *     Callers only encode the packet once someone was found, so a beam nobody sees costs no buffer.
+     *     The packet is built once and shared by all receivers.
+     * </p>
+     *
+     * @param players Who receives the packet
+     * @param id Channel id of the packet
+     * @param buf Encoded packet payload
+     * @return how many players the packet was sent to
+     */
+    public static int send(List<ServerPlayer> players, ResourceLocation id, FriendlyByteBuf buf) {
+        Packet<?> packet = ServerPlayNetworking.createS2CPacket(id, buf);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).connection.send(packet);
+        }
+        return players.size();
+    }
+}
@@ -0,0 +1,225 @@
+package net.l1nkstryk3r.mq.renderer;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderContext;
+import net.l1nkstryk3r.mq.beam.BeamStore;
+import net.l1nkstryk3r.mq.client.ClientBeams;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.l1nkstryk3r.mq.mixin.FrustumAccessor;
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.culling.Frustum;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.Mth;
+import net.minecraft.world.phys.Vec3;
+import org.jetbrains.annotations.Nullable;
+import org.joml.Matrix4f;
+
+import java.util.Arrays;
+
+/**
+ * Draws every visible Master Sword beam in one batch per frame.
+ * <p>
+ *     Beams are queued during the frame (entity beams from {@link MasterSwordBeamRenderer}, pooled beams
+ *     straight from {@link ClientBeams}) and then emitted together after the entity pass:
+ *     <ul>
+ *         <li>one {@link RenderType}, {@link BeamRenderType}, so the buffer source never has to switch batches
+ *             between beams. Its shader animates the beams, so the CPU only transforms them</li>
+ *         <li>one precomputed {@link BeamMesh}, only transformed per beam</li>
+ *         <li>reused scratch matrices and growable primitive arrays, so nothing is allocated per beam</li>
+ *     </ul>
+ * </p>
+ * <p>
+ *     Beams are culled against the frustum with the box their visual actually covers ({@link #isVisible}),
+ *     and drawn at a level of detail picked by distance from the camera ({@link ModConfig.Render}).
+ * </p>
+ */
+public final class BeamBatchRenderer {
+    public static final ResourceLocation TEXTURE = ModUtils.id("textures/entity/master_sword_beam.png");
+
+    // the visual sits slightly below the beam's position
+    static final double Y_OFFSET = -0.15;
+
+    // === queued beams for this frame, camera-relative ===
+    private static float[] queuedX = new float[64];
+    private static float[] queuedY = new float[64];
+    private static float[] queuedZ = new float[64];
+    private static float[] queuedYRot = new float[64];
+    private static float[] queuedXRot = new float[64];
+    private static int[] queuedSpawnTick = new int[64];
+    private static int[] queuedLifetime = new int[64];
+    private static int queued;
+
+    // === reused scratch state ===
+    private static final Matrix4f POSE = new Matrix4f();
+
+    private BeamBatchRenderer() {}
+
+    /**
+     * Queues one beam for this frame's batch.
+     *
+     * @param x Camera-relative position
+     * @param y Camera-relative position
+     * @param z Camera-relative position
+     * @param yRot Projectile yaw in degrees
+     * @param xRot Projectile pitch in degrees
+     * @param spawnTick Tick the beam was fired on, see {@link BeamMesh#spawnTick}
+     * @param lifetime Ticks the beam lives in total
+     */
+    public static void queue(double x, double y, double z, float yRot, float xRot, int spawnTick, int lifetime) {
+        if (queued == queuedX.length) grow();
+
+        queuedX[queued] = (float) x;
+        queuedY[queued] = (float) y;
+        queuedZ[queued] = (float) z;
+        queuedYRot[queued] = yRot;
+        queuedXRot[queued] = xRot;
+        queuedSpawnTick[queued] = spawnTick;
+        queuedLifetime[queued] = lifetime;
+        queued++;
+    }
+
+    /**
+     * Emits every queued beam, plus the pooled client beams, into a single buffer.
+     * Registered on the world render event that runs right after the entity pass.
+     */
+    public static void flush(WorldRenderContext context) {
+        if (context.consumers() == null) {
+            queued = 0;
+            return;
+        }
+
+        ModConfig.Render lod = ModConfig.get().render;
+        float nearSqr = lod.nearDistance * lod.nearDistance;
+        float midSqr = lod.midDistance * lod.midDistance;
+        float farSqr = lod.farDistance * lod.farDistance;
+
+        float partialTicks = context.tickDelta();
+        long gameTime = context.world().getGameTime();
+        Vec3 camPos = context.camera().getPosition();
+        queueBeams(ClientBeams.beams(), context.frustum(), gameTime, camPos.x, camPos.y, camPos.z, partialTicks, farSqr);
+        if (queued == 0) return;
+
+        BeamRenderType.setTime(gameTime, partialTicks);
+        emitQueued(context.consumers().getBuffer(BeamRenderType.BEAM), context.matrixStack().last().pose(),
+            nearSqr, midSqr, farSqr);
+    }
+
+    /**
+     * Emits every queued beam at its level of detail and empties the queue, the part of {@link #flush} after
+     * the beams are queued. Needs no running game, so the allocation check runs it as is.
+     *
+     * @param view The camera's view matrix
+     * @param nearSqr Squared distance up to which the full mesh is drawn
+     * @param midSqr Squared distance up to which a camera-facing plane is drawn, a thin streak beyond
+     * @param farSqr Squared distance beyond which nothing is drawn
+     */
+    public static void emitQueued(VertexConsumer vertexConsumer, Matrix4f view, float nearSqr, float midSqr, float farSqr) {
+        for (int i = 0; i < queued; i++) {
+            float x = queuedX[i], y = queuedY[i], z = queuedZ[i];
+            float distanceSqr = x * x + y * y + z * z;
+            if (distanceSqr > farSqr) continue;
+
+            float yRot = queuedYRot[i] * Mth.DEG_TO_RAD;
+            float xRot = queuedXRot[i] * Mth.DEG_TO_RAD;
+
+            if (distanceSqr <= nearSqr) {
+                // beam transform: move to the beam, then rotate to face its direction of travel
+                POSE.set(view)
+                    .translate(x, y, z)
+                    .rotateY(yRot)
+                    .rotateX(-xRot)
+                    .rotateZ(Mth.PI);
+
+                BeamMesh.emit(vertexConsumer, POSE, queuedSpawnTick[i], queuedLifetime[i]);
+            } else {
+                // same direction the full mesh is rotated to
+                float cosX = Mth.cos(xRot);
+                float halfWidth = distanceSqr <= midSqr ? BeamMesh.HALF_WIDTH : BeamMesh.STREAK_HALF_WIDTH;
+                BeamMesh.emitBillboard(vertexConsumer, view,
+                    x, y, z, Mth.sin(yRot) * cosX, Mth.sin(xRot), Mth.cos(yRot) * cosX,
+                    halfWidth, queuedSpawnTick[i], queuedLifetime[i]);
+            }
+        }
+        queued = 0;
+    }
+
+    /**
+     * Checks the box a beam's visual covers this frame against the frustum.
+     * <p>
+     *     The mesh reaches {@link BeamMesh#LENGTH} ahead of the beam's position and up to
+     *     {@link BeamMesh#HALF_WIDTH} to every side, and the beam moves while the frame interpolates,
+     *     so the box spans the whole move plus the mesh around it. The entity's own culling box is
+     *     only its small hitbox, which misses most of that.
+     * </p>
+     *
+     * @param fromX World position at the start of the tick
+     * @param toX World position at the end of the tick
+     * @param dirX Unit direction of travel
+     */
+    public static boolean isVisible(Frustum frustum,
+                                    double fromX, double fromY, double fromZ,
+                                    double toX, double toY, double toZ,
+                                    double dirX, double dirY, double dirZ) {
+        double aheadX = toX + dirX * BeamMesh.LENGTH;
+        double aheadY = toY + dirY * BeamMesh.LENGTH;
+        double aheadZ = toZ + dirZ * BeamMesh.LENGTH;
+        double margin = BeamMesh.HALF_WIDTH;
+
+        return ((FrustumAccessor) frustum).mq$cubeInFrustum(
+            Math.min(Math.min(fromX, toX), aheadX) - margin,
+            Math.min(Math.min(fromY, toY), aheadY) - margin + Y_OFFSET,
+            Math.min(Math.min(fromZ, toZ), aheadZ) - margin,
+            Math.max(Math.max(fromX, toX), aheadX) + margin,
+            Math.max(Math.max(fromY, toY), aheadY) + margin + Y_OFFSET,
+            Math.max(Math.max(fromZ, toZ), aheadZ) + margin
+        );
+    }
+
+    /**
+     * Queues pooled beams, which aren't entities and so never hit the entity pass: {@link ClientBeams}' beams
+     * in {@link #flush}, or any other store with no frustum, as the allocation check does.
+     * Beams out of view or beyond the far distance are skipped.
+     *
+     * @param frustum The frame's frustum, or null to queue beams without culling them
+     * @param gameTime The level's game time
+     * @param camX Camera position
+     */
+    public static void queueBeams(BeamStore beams, @Nullable Frustum frustum, long gameTime,
+                                  double camX, double camY, double camZ, float partialTicks, float farSqr) {
+        for (int i = 0; i < beams.size(); i++) {
+            int slot = beams.activeSlot(i);
+            double vx = beams.vx[slot], vy = beams.vy[slot], vz = beams.vz[slot];
+
+            // beams fly straight, so extrapolating along the velocity is exact
+            double x = beams.x[slot] + vx * partialTicks;
+            double y = beams.y[slot] + vy * partialTicks;
+            double z = beams.z[slot] + vz * partialTicks;
+
+            double relX = x - camX, relY = y - camY + Y_OFFSET, relZ = z - camZ;
+            if (relX * relX + relY * relY + relZ * relZ > farSqr) continue;
+
+            double speed = Math.sqrt(vx * vx + vy * vy + vz * vz);
+            if (frustum != null && speed > 1.0E-7
+                && !isVisible(frustum, x, y, z, x, y, z, vx / speed, vy / speed, vz / speed)) continue;
+
+            // same rotation a projectile derives from its motion
+            float yRot = (float) (Mth.atan2(vx, vz) * Mth.RAD_TO_DEG);
+            float xRot = (float) (Mth.atan2(vy, Math.sqrt(vx * vx + vz * vz)) * Mth.RAD_TO_DEG);
+
+            queue(relX, relY, relZ, yRot, xRot, BeamMesh.spawnTick(gameTime - beams.age[slot]), beams.lifetime[slot]);
+        }
+    }
+
+    /** Doubles the queue arrays; only happens until the busiest frame so far fits. */
+    private static void grow() {
+        int capacity = queuedX.length * 2;
+        queuedX = Arrays.copyOf(queuedX, capacity);
+        queuedY = Arrays.copyOf(queuedY, capacity);
+        queuedZ = Arrays.copyOf(queuedZ, capacity);
+        queuedYRot = Arrays.copyOf(queuedYRot, capacity);
+        queuedXRot = Arrays.copyOf(queuedXRot, capacity);
+        queuedSpawnTick = Arrays.copyOf(queuedSpawnTick, capacity);
+        queuedLifetime = Arrays.copyOf(queuedLifetime, capacity);
+    }
+}
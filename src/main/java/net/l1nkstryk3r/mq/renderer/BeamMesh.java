@@ -0,0 +1,119 @@
+package net.l1nkstryk3r.mq.renderer;
+
+import com.mojang.blaze3d.vertex.VertexConsumer;
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+
+/**
+ * The beam's geometry, at three levels of detail:
+ * <ul>
+ *     <li>{@link #emit}: two crossed planes, the second one rotated 90 degrees around the beam axis</li>
+ *     <li>{@link #emitBillboard}: a single plane along the beam axis, turned to face the camera</li>
+ *     <li>the same billboard at {@link #STREAK_HALF_WIDTH}, a thin streak for far away beams</li>
+ * </ul>
+ * <p>
+ *     Vertices are in {@link BeamRenderType#FORMAT}: texture scrolling and fading happen in the beam shader,
+ *     so apart from the position, what is written for a beam is the same on every frame.
+ * </p>
+ * <p>
+ *     Kept apart from {@link BeamBatchRenderer} so emitting a beam only needs a {@link VertexConsumer}
+ *     and a transform, not a render context; that's also what lets the benchmarks drive it directly.
+ * </p>
+ */
+public final class BeamMesh {
+    /** Vertices written per beam by {@link #emit}; the billboard writes half as many. */
+    public static final int VERTICES = 8;
+
+    // size of the beam (tweak for visual effects), it extends LENGTH forward from its position
+    public static final float HALF_WIDTH = 1.6f;
+    public static final float LENGTH = 3.0f;
+    public static final float STREAK_HALF_WIDTH = 0.2f;
+
+    // local vertex positions, 4 per plane
+    private static final float[] MESH = {
+        -HALF_WIDTH, 0, 0,
+         HALF_WIDTH, 0, 0,
+         HALF_WIDTH, 0, LENGTH,
+        -HALF_WIDTH, 0, LENGTH,
+
+        0, -HALF_WIDTH, 0,
+        0,  HALF_WIDTH, 0,
+        0,  HALF_WIDTH, LENGTH,
+        0, -HALF_WIDTH, LENGTH,
+    };
+    // base texture coordinates of each vertex, the shader scrolls V
+    private static final float[] MESH_U = { 0, 1, 1, 0, 0, 1, 1, 0 };
+    private static final float[] MESH_V = { 0, 0, 1, 1, 0, 0, 1, 1 };
+
+    // reused scratch vectors, only touched on the render thread
+    private static final Vector3f VERTEX = new Vector3f();
+    private static final Vector3f SIDE = new Vector3f();
+
+    private BeamMesh() {}
+
+    /**
+     * A game time as the spawn tick written into {@code UV2}, counted modulo {@value BeamRenderType#TIME_WRAP}.
+     * Here rather than in {@link BeamRenderType} so queueing a beam doesn't need its render type built.
+     */
+    public static int spawnTick(long gameTime) {
+        return Math.floorMod(gameTime, BeamRenderType.TIME_WRAP);
+    }
+
+    /**
+     * Writes the mesh for one beam.
+     *
+     * @param pose Beam transform, already rotated to face its direction of travel
+     * @param spawnTick Tick the beam was fired on, see {@link #spawnTick}
+     * @param lifetime Ticks the beam lives in total
+     */
+    public static void emit(VertexConsumer vertexConsumer, Matrix4f pose, int spawnTick, int lifetime) {
+        for (int v = 0; v < VERTICES; v++) {
+            VERTEX.set(MESH[v * 3], MESH[v * 3 + 1], MESH[v * 3 + 2]);
+            pose.transformPosition(VERTEX);
+            vertex(vertexConsumer, VERTEX.x, VERTEX.y, VERTEX.z, MESH_U[v], MESH_V[v], spawnTick, lifetime);
+        }
+    }
+
+    /**
+     * Writes one plane along the beam axis, turned around the axis to face the camera.
+     * <p>
+     *     Half the vertices of {@link #emit}, and from a distance the crossed planes look the same anyway.
+     * </p>
+     *
+     * @param view Camera rotation, positions are relative to the camera
+     * @param x Camera-relative start of the beam
+     * @param dirX Unit direction of travel
+     * @param halfWidth Half the width of the plane, {@link #HALF_WIDTH} or {@link #STREAK_HALF_WIDTH}
+     */
+    public static void emitBillboard(VertexConsumer vertexConsumer, Matrix4f view,
+                                     float x, float y, float z, float dirX, float dirY, float dirZ,
+                                     float halfWidth, int spawnTick, int lifetime) {
+        // side vector: across the beam and across the line of sight to its middle
+        float midX = x + dirX * LENGTH * 0.5f, midY = y + dirY * LENGTH * 0.5f, midZ = z + dirZ * LENGTH * 0.5f;
+        SIDE.set(dirX, dirY, dirZ).cross(midX, midY, midZ);
+        // looking straight along the beam, any side works
+        if (SIDE.lengthSquared() < 1.0E-6f) SIDE.set(dirX, dirY, dirZ).cross(0.0f, 1.0f, 0.0f);
+        if (SIDE.lengthSquared() < 1.0E-6f) SIDE.set(1.0f, 0.0f, 0.0f);
+        SIDE.normalize(halfWidth);
+
+        float endX = x + dirX * LENGTH, endY = y + dirY * LENGTH, endZ = z + dirZ * LENGTH;
+
+        // same corner order and UVs as one plane of the full mesh
+        billboardVertex(vertexConsumer, view, x - SIDE.x, y - SIDE.y, z - SIDE.z, 0.0f, 0.0f, spawnTick, lifetime);
+        billboardVertex(vertexConsumer, view, x + SIDE.x, y + SIDE.y, z + SIDE.z, 1.0f, 0.0f, spawnTick, lifetime);
+        billboardVertex(vertexConsumer, view, endX + SIDE.x, endY + SIDE.y, endZ + SIDE.z, 1.0f, 1.0f, spawnTick, lifetime);
+        billboardVertex(vertexConsumer, view, endX - SIDE.x, endY - SIDE.y, endZ - SIDE.z, 0.0f, 1.0f, spawnTick, lifetime);
+    }
+
+    private static void billboardVertex(VertexConsumer vertexConsumer, Matrix4f view, float x, float y, float z,
+                                        float u, float v, int spawnTick, int lifetime) {
+        VERTEX.set(x, y, z);
+        view.transformPosition(VERTEX);
+        vertex(vertexConsumer, VERTEX.x, VERTEX.y, VERTEX.z, u, v, spawnTick, lifetime);
+    }
+
+    /** Writes one vertex; the beam shader reads the spawn tick and lifetime from {@code UV2}. */
+    private static void vertex(VertexConsumer vertexConsumer, float x, float y, float z, float u, float v, int spawnTick, int lifetime) {
+        vertexConsumer.vertex(x, y, z).uv(u, v).uv2(spawnTick, lifetime).endVertex();
+    }
+}
@@ -0,0 +1,85 @@
+package net.l1nkstryk3r.mq.renderer;
+
+import com.google.common.collect.ImmutableMap;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.blaze3d.vertex.VertexFormatElement;
+import net.fabricmc.fabric.api.client.rendering.v1.CoreShaderRegistrationCallback;
+import net.l1nkstryk3r.mq.util.ModUtils;
+import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.ShaderInstance;
+
+/**
+ * The beam's render type and the core shader behind it ({@code assets/l1nks-master-quest/shaders/core/beam.*}).
+ * <p>
+ *     Everything about a beam that changes over time is worked out on the GPU: the vertex shader scrolls the
+ *     texture, fades the beam out over its lifetime and brightens it right after it is fired, from the beam's
+ *     spawn tick and lifetime and a {@code BeamTime} uniform holding the current tick. The CPU only writes each
+ *     vertex's position, and every other vertex attribute stays the same for the beam's whole life.
+ * </p>
+ * <p>
+ *     Vertices are {@link #FORMAT}: position, base texture coordinates (0 or 1 on each axis), and the spawn tick
+ *     and lifetime packed as two shorts in {@code UV2}, which is an integer attribute in the shader. The spawn
+ *     tick and {@code BeamTime} both count modulo {@value #TIME_WRAP} ticks to fit that short.
+ * </p>
+ * <p>
+ *     Blending, culling and texture match the {@code energySwirl} type the beam used before. That one took the
+ *     light level and an overlay too, but its shader never read them, so the beam looks the same without them.
+ * </p>
+ */
+public final class BeamRenderType extends RenderType {
+    /** Spawn ticks and the time uniform wrap around after this many ticks. */
+    public static final int TIME_WRAP = 32768;
+
+    public static final VertexFormat FORMAT = new VertexFormat(ImmutableMap.<String, VertexFormatElement>builder()
+        .put("Position", DefaultVertexFormat.ELEMENT_POSITION)
+        .put("UV0", DefaultVertexFormat.ELEMENT_UV0)
+        .put("UV2", DefaultVertexFormat.ELEMENT_UV2)
+        .build());
+
+    private static ShaderInstance shader;
+    // current tick plus partial tick, modulo TIME_WRAP; uploaded when the beam batch is drawn
+    private static float time;
+
+    static final RenderType BEAM = create(
+        "l1nks_master_quest_beam",
+        FORMAT,
+        VertexFormat.Mode.QUADS,
+        TRANSIENT_BUFFER_SIZE,
+        false,
+        true,
+        CompositeState.builder()
+            .setShaderState(new ShaderStateShard(() -> shader))
+            .setTextureState(new TextureStateShard(BeamBatchRenderer.TEXTURE, false, false))
+            .setTexturingState(new TexturingStateShard("l1nks_master_quest_beam_time",
+                () -> shader.safeGetUniform("BeamTime").set(time), () -> {}))
+            .setTransparencyState(ADDITIVE_TRANSPARENCY)
+            .setCullState(NO_CULL)
+            .createCompositeState(false)
+    );
+
+    // only here to reach RenderType's protected state shards, never instantiated
+    private BeamRenderType(String name, VertexFormat format, VertexFormat.Mode mode, int bufferSize,
+                           boolean affectsCrumbling, boolean sortOnUpload, Runnable setup, Runnable clear) {
+        super(name, format, mode, bufferSize, affectsCrumbling, sortOnUpload, setup, clear);
+    }
+
+    /**
+     * Registers the beam shader, loaded with the other core shaders on every resource reload.
+     * Called once from the client initializer.
+     */
+    public static void initialize() {
+        CoreShaderRegistrationCallback.EVENT.register(context ->
+            context.register(ModUtils.id("beam"), FORMAT, loaded -> shader = loaded));
+    }
+
+    /**
+     * Sets the time the beams of this frame are drawn at.
+     *
+     * @param gameTime The level's game time
+     * @param partialTicks Progress into the next tick
+     */
+    static void setTime(long gameTime, float partialTicks) {
+        time = Math.floorMod(gameTime, TIME_WRAP) + partialTicks;
+    }
+}
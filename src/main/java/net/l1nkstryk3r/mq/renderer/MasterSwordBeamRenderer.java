@@ -1,17 +1,13 @@
 package net.l1nkstryk3r.mq.renderer;
 
 import com.mojang.blaze3d.vertex.PoseStack;
-import com.mojang.blaze3d.vertex.VertexConsumer;
-import com.mojang.math.Axis;
 import net.l1nkstryk3r.mq.entity.MasterSwordBeamEntity;
-import net.l1nkstryk3r.mq.util.ModUtils;
 import net.minecraft.client.Camera;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.MultiBufferSource;
-import net.minecraft.client.renderer.RenderType;
+import net.minecraft.client.renderer.culling.Frustum;
 import net.minecraft.client.renderer.entity.EntityRenderer;
 import net.minecraft.client.renderer.entity.EntityRendererProvider;
-import net.minecraft.client.renderer.texture.OverlayTexture;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.Mth;
 import net.minecraft.world.phys.Vec3;
@@ -23,6 +19,10 @@ import org.jetbrains.annotations.NotNull;
  *     This renderer draws a glowing, energy-like beam using a textured quad.
  *     It uses two perpendicular planes to simulate a 3D appearance.
  * </p>
+ * <p>
+ *     The geometry itself is emitted by {@link BeamBatchRenderer} together with every other beam
+ *     in the frame, this renderer only queues the entity's position and rotation.
+ * </p>
  */
 public class MasterSwordBeamRenderer extends EntityRenderer<MasterSwordBeamEntity> {
 
@@ -31,15 +31,33 @@ public class MasterSwordBeamRenderer extends EntityRenderer<MasterSwordBeamEntit
         super(context);
     }
 
+    /**
+     * Culls with the box the beam's visual covers instead of the entity's small hitbox,
+     * see {@link BeamBatchRenderer#isVisible}.
+     */
+    @Override
+    public boolean shouldRender(MasterSwordBeamEntity entity, Frustum frustum, double camX, double camY, double camZ) {
+        if (!entity.shouldRender(camX, camY, camZ)) return false;
+
+        // same direction the batch rotates the mesh to
+        float yRot = entity.getYRot() * Mth.DEG_TO_RAD;
+        float xRot = entity.getXRot() * Mth.DEG_TO_RAD;
+        float cosX = Mth.cos(xRot);
+        return BeamBatchRenderer.isVisible(frustum,
+            entity.xOld, entity.yOld, entity.zOld,
+            entity.getX(), entity.getY(), entity.getZ(),
+            Mth.sin(yRot) * cosX, Mth.sin(xRot), Mth.cos(yRot) * cosX);
+    }
+
     /** Returns the texture used for rendering this entity. */
     @Override
     @NotNull
     public ResourceLocation getTextureLocation(MasterSwordBeamEntity entity) {
-        return ModUtils.id("textures/entity/master_sword_beam.png");
+        return BeamBatchRenderer.TEXTURE;
     }
 
     /**
-     * Defines how to draw the beam entity
+     * Queues the beam entity for this frame's beam batch
      *
      * @param entity The beam being rendered
      * @param entityYaw Entity rotation around the Y-axis
@@ -56,77 +74,20 @@ public class MasterSwordBeamRenderer extends EntityRenderer<MasterSwordBeamEntit
         MultiBufferSource buffer,
         int packedLight
     ) {
-        // push to preserve the current transform state
-        poseStack.pushPose();
-
         // interpolate position smoothly between ticks for smoother visuals
         double interpX = Mth.lerp(partialTicks, entity.xOld, entity.getX());
         double interpY = Mth.lerp(partialTicks, entity.yOld, entity.getY());
         double interpZ = Mth.lerp(partialTicks, entity.zOld, entity.getZ());
 
-        // Translate to the beam's current world position relative to the camera
+        // queue the beam's current world position relative to the camera
         Camera camera = Minecraft.getInstance().gameRenderer.getMainCamera();
         Vec3 camPos = camera.getPosition();
-        poseStack.translate(interpX - camPos.x, interpY - camPos.y - 0.15D, interpZ - camPos.z);
-
-        // Rotate the beam to face the correct direction
-        poseStack.mulPose(Axis.YP.rotationDegrees(entity.getYRot()));
-        poseStack.mulPose(Axis.XP.rotationDegrees(-entity.getXRot()));
-        poseStack.mulPose(Axis.ZP.rotationDegrees(180.0F));
-
-        // Alpha fade over lifetime
-        float life = (entity.tickCount + partialTicks) * 0.2f;
-        float alpha = Math.max(1.0f - (entity.tickCount / 40.0f), 0.1f);
-
-        // UV mapping
-        float minU = 0.0f;
-        float maxU = 1.0f;
-        float minV = life % 1.0f;
-        float maxV = minV + 0.5f;
-
-        // size of the beam (tweak for visual effects)
-        float halfWidth = 1.6f;
-        float length = 3.0f;
-
-        // Render buffer for the beam texture
-        VertexConsumer vertexConsumer = buffer.getBuffer(RenderType.energySwirl(getTextureLocation(entity), 0, 0));
-
-        // draw projectile planes
-        for (float rotation : new float[]{ 0.0f, 90.0f }) {
-            poseStack.mulPose(Axis.ZP.rotationDegrees(rotation));
-            PoseStack.Pose pose = poseStack.last();
-            vertexConsumer.vertex(pose.pose(), -halfWidth, 0, 0)
-                .color(255, 255, 255, (int)(alpha * 255))
-                .uv(minU, minV)
-                .overlayCoords(OverlayTexture.NO_OVERLAY)
-                .uv2(packedLight)
-                .normal(pose.normal(), 0, 1, 0)
-                .endVertex();
-            vertexConsumer.vertex(pose.pose(), halfWidth, 0, 0)
-                .color(255, 255, 255, (int)(alpha * 255))
-                .uv(maxU, minV)
-                .overlayCoords(OverlayTexture.NO_OVERLAY)
-                .uv2(packedLight)
-                .normal(pose.normal(), 0, 1, 0)
-                .endVertex();
-            vertexConsumer.vertex(pose.pose(), halfWidth, 0, length)
-                .color(255, 255, 255, (int)(alpha * 255))
-                .uv(maxU, maxV)
-                .overlayCoords(OverlayTexture.NO_OVERLAY)
-                .uv2(packedLight)
-                .normal(pose.normal(), 0, 1, 0)
-                .endVertex();
-            vertexConsumer.vertex(pose.pose(), -halfWidth, 0, length)
-                .color(255, 255, 255, (int)(alpha * 255))
-                .uv(minU, maxV)
-                .overlayCoords(OverlayTexture.NO_OVERLAY)
-                .uv2(packedLight)
-                .normal(pose.normal(), 0, 1, 0)
-                .endVertex();
-        }
-
-        // restore transform state
-        poseStack.popPose();
+        BeamBatchRenderer.queue(
+            interpX - camPos.x, interpY - camPos.y + BeamBatchRenderer.Y_OFFSET, interpZ - camPos.z,
+            entity.getYRot(), entity.getXRot(),
+            BeamMesh.spawnTick(entity.level().getGameTime() - entity.tickCount),
+            entity.getLifetime()
+        );
 
         // Render the entity (for lighting/shadow integration)
         super.render(entity, entityYaw, partialTicks, poseStack, buffer, packedLight);
@@ -0,0 +1,38 @@
+package net.l1nkstryk3r.mq.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for every beam hit, timed over the hit handling itself.
+ * Only committed while a recording has it enabled, see {@link BeamStats}.
+ */
+@Name("net.l1nkstryk3r.mq.BeamImpact")
+@Label("Beam Impact")
+@Category({ "L1nk's Master Quest", "Beams" })
+@Description("A Master Sword beam hit an entity or a block")
+@StackTrace(false)
+public final class BeamImpactEvent extends jdk.jfr.Event {
+    @Label("Dimension")
+    String dimension;
+
+    @Label("Block Hit")
+    @Description("True for a block hit, which ends the beam; false for an entity hit")
+    boolean blockHit;
+
+    @Label("Target")
+    @Description("Entity type id of the target, empty for block hits")
+    String target;
+
+    @Label("X")
+    double x;
+
+    @Label("Y")
+    double y;
+
+    @Label("Z")
+    double z;
+}
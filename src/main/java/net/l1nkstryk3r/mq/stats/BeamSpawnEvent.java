@@ -0,0 +1,37 @@
+package net.l1nkstryk3r.mq.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for every fired beam, pooled or entity.
+ * Only committed while a recording has it enabled, see {@link BeamStats}.
+ */
+@Name("net.l1nkstryk3r.mq.BeamSpawn")
+@Label("Beam Spawn")
+@Category({ "L1nk's Master Quest", "Beams" })
+@Description("A Master Sword beam was fired")
+@StackTrace(false)
+public final class BeamSpawnEvent extends jdk.jfr.Event {
+    @Label("Dimension")
+    String dimension;
+
+    @Label("Owner Entity Id")
+    int ownerId;
+
+    @Label("Entity Beam")
+    @Description("True if the beam was spawned as an entity (compatibility mode)")
+    boolean entityBeam;
+
+    @Label("X")
+    double x;
+
+    @Label("Y")
+    double y;
+
+    @Label("Z")
+    double z;
+}
@@ -0,0 +1,231 @@
+package net.l1nkstryk3r.mq.stats;
+
+import jdk.jfr.EventType;
+import net.l1nkstryk3r.mq.config.ModConfig;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Runtime counters and timings for the beams of one {@link ServerLevel}, read by {@code /mq stats}.
+ * <p>
+ *     Everything here is a plain field updated on the server thread, so recording costs a few
+ *     increments and, for timed sections, two {@link System#nanoTime()} calls. With
+ *     {@code "instrumentation": false} in the config every record method returns right away.
+ * </p>
+ * <p>
+ *     Spawns and impacts are also emitted as JFR events ({@link BeamSpawnEvent}, {@link BeamImpactEvent}),
+ *     which cost nothing beyond a disabled-check (and allocate nothing) unless a flight recording has them enabled.
+ * </p>
+ */
+public final class BeamStats {
+    // start value of a timer that was started while instrumentation was off
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    // checked before creating an event, so nothing is allocated unless a recording wants the event
+    private static final EventType SPAWN_EVENT = EventType.getEventType(BeamSpawnEvent.class);
+    private static final EventType IMPACT_EVENT = EventType.getEventType(BeamImpactEvent.class);
+
+    private final ServerLevel level;
+
+    // === counters ===
+    private long spawned;
+    private long expired;
+    private long entityHits;
+    private long blockHits;
+    private long packets;
+    // path solves that weren't done in time and were solved on the server thread instead
+    private long lateSolves;
+    // beam ticks skipped because nothing was near the beam, caught up in a later, longer step
+    private long lodSkips;
+    // beams that despawned where their path left the loaded, ticking chunks
+    private long boundaryExits;
+
+    // === timings ===
+    // the whole pooled beam tick of the level
+    private final LatencyHistogram tickTime = new LatencyHistogram();
+    // one entity beam's tick, compatibility mode only
+    private final LatencyHistogram entityTickTime = new LatencyHistogram();
+    // handling one entity hit (damage and impact effect), both modes
+    private final LatencyHistogram entityHitTime = new LatencyHistogram();
+    // handling one block hit (impact effect), both modes
+    private final LatencyHistogram blockHitTime = new LatencyHistogram();
+
+    public BeamStats(ServerLevel level) {
+        this.level = level;
+    }
+
+    /** @return true if beam instrumentation is turned on in the config */
+    public static boolean enabled() {
+        return ModConfig.get().instrumentation;
+    }
+
+    /**
+     * Starts timing a section, to be passed to one of the {@code record...} methods that take a start time.
+     *
+     * @return the start time, or a marker the record methods ignore if instrumentation is off
+     */
+    public long startTimer() {
+        return enabled() ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /** Records the time the level's pooled beam tick took. */
+    public void recordTick(long start) {
+        if (start != NOT_TIMED) tickTime.record(System.nanoTime() - start);
+    }
+
+    /** Records the time one entity beam's tick took. */
+    public void recordEntityTick(long start) {
+        if (start != NOT_TIMED) entityTickTime.record(System.nanoTime() - start);
+    }
+
+    /** Counts a fired beam. */
+    public void recordSpawn(int ownerId, double x, double y, double z, boolean entityBeam) {
+        if (!enabled()) return;
+        spawned++;
+        if (!SPAWN_EVENT.isEnabled()) return;
+
+        BeamSpawnEvent event = new BeamSpawnEvent();
+        if (event.shouldCommit()) {
+            event.dimension = level.dimension().location().toString();
+            event.ownerId = ownerId;
+            event.entityBeam = entityBeam;
+            event.x = x;
+            event.y = y;
+            event.z = z;
+            event.commit();
+        }
+    }
+
+    /** Counts a beam that ran out of lifetime without hitting a block. */
+    public void recordExpired() {
+        if (enabled()) expired++;
+    }
+
+    /** Counts an entity hit and the time it took to handle. */
+    public void recordEntityHit(long start, Entity target, double x, double y, double z) {
+        if (start == NOT_TIMED) return;
+        entityHitTime.record(System.nanoTime() - start);
+        entityHits++;
+        if (!IMPACT_EVENT.isEnabled()) return;
+
+        BeamImpactEvent event = new BeamImpactEvent();
+        if (event.shouldCommit()) {
+            event.dimension = level.dimension().location().toString();
+            event.blockHit = false;
+            event.target = BuiltInRegistries.ENTITY_TYPE.getKey(target.getType()).toString();
+            event.x = x;
+            event.y = y;
+            event.z = z;
+            event.commit();
+        }
+    }
+
+    /** Counts a block hit and the time it took to handle. */
+    public void recordBlockHit(long start, double x, double y, double z) {
+        if (start == NOT_TIMED) return;
+        blockHitTime.record(System.nanoTime() - start);
+        blockHits++;
+        if (!IMPACT_EVENT.isEnabled()) return;
+
+        BeamImpactEvent event = new BeamImpactEvent();
+        if (event.shouldCommit()) {
+            event.dimension = level.dimension().location().toString();
+            event.blockHit = true;
+            event.target = "";
+            event.x = x;
+            event.y = y;
+            event.z = z;
+            event.commit();
+        }
+    }
+
+    /** Counts packets sent on behalf of beams: spawns, early ends and effects. */
+    public void recordPackets(int count) {
+        if (enabled()) packets += count;
+    }
+
+    /** Counts a worker path solve that had to be redone on the server thread. */
+    public void recordLateSolve() {
+        if (enabled()) lateSolves++;
+    }
+
+    /** Counts a tick a far-away beam wasn't stepped on, see {@code BeamManager}'s simulation level of detail. */
+    public void recordLodSkip() {
+        if (enabled()) lodSkips++;
+    }
+
+    /** Counts a beam that despawned at the border of the loaded chunks, see {@code BeamChunkView}. */
+    public void recordBoundaryExit() {
+        if (enabled()) boundaryExits++;
+    }
+
+    /** Starts counting from zero again. */
+    public void reset() {
+        spawned = 0;
+        expired = 0;
+        entityHits = 0;
+        blockHits = 0;
+        packets = 0;
+        lateSolves = 0;
+        lodSkips = 0;
+        boundaryExits = 0;
+        tickTime.reset();
+        entityTickTime.reset();
+        entityHitTime.reset();
+        blockHitTime.reset();
+    }
+
+    public long spawned() {
+        return spawned;
+    }
+
+    public long expired() {
+        return expired;
+    }
+
+    public long entityHits() {
+        return entityHits;
+    }
+
+    public long blockHits() {
+        return blockHits;
+    }
+
+    public long packets() {
+        return packets;
+    }
+
+    public long lateSolves() {
+        return lateSolves;
+    }
+
+    public long lodSkips() {
+        return lodSkips;
+    }
+
+    public long boundaryExits() {
+        return boundaryExits;
+    }
+
+    /** @return average packets sent per fired beam, 0 if none were fired */
+    public double packetsPerBeam() {
+        return spawned == 0 ? 0.0 : (double) packets / spawned;
+    }
+
+    public LatencyHistogram tickTime() {
+        return tickTime;
+    }
+
+    public LatencyHistogram entityTickTime() {
+        return entityTickTime;
+    }
+
+    public LatencyHistogram entityHitTime() {
+        return entityHitTime;
+    }
+
+    public LatencyHistogram blockHitTime() {
+        return blockHitTime;
+    }
+}
@@ -0,0 +1,70 @@
+package net.l1nkstryk3r.mq.stats;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size latency histogram with power-of-two buckets.
+ * <p>
+ *     Recording is a couple of integer operations and never allocates, which is all the precision a
+ *     "how slow is this per tick" view needs: percentiles are reported as the upper bound of their bucket,
+ *     so they are accurate to within a factor of two.
+ * </p>
+ */
+public final class LatencyHistogram {
+    // bucket i holds durations below 2^i nanoseconds; 40 buckets reach ~18 minutes
+    private static final int BUCKETS = 40;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long sumNanos;
+    private long maxNanos;
+
+    /** Records one measured duration. */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int bucket = Math.min(64 - Long.numberOfLeadingZeros(nanos), BUCKETS - 1);
+        counts[bucket]++;
+        total++;
+        sumNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    /** @return how many durations were recorded */
+    public long count() {
+        return total;
+    }
+
+    /** @return the average duration in nanoseconds, or 0 if nothing was recorded */
+    public long meanNanos() {
+        return total == 0 ? 0 : sumNanos / total;
+    }
+
+    /** @return the longest recorded duration in nanoseconds */
+    public long maxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @param percentile Between 0 and 100
+     * @return an upper bound of the given percentile in nanoseconds, or 0 if nothing was recorded
+     */
+    public long percentileNanos(double percentile) {
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) return Math.min(1L << bucket, maxNanos);
+        }
+        return maxNanos;
+    }
+
+    /** Forgets every recorded duration. */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        sumNanos = 0;
+        maxNanos = 0;
+    }
+}
@@ -0,0 +1,51 @@
+package net.l1nkstryk3r.mq.trace;
+
+import net.fabricmc.loader.api.FabricLoader;
+
+import java.nio.file.Path;
+
+/**
+ * The beam trace file format, shared by {@link BeamTraceRecorder} and {@link BeamTraceReplay}.
+ * <p>
+ *     A trace is a header followed by a flat list of records, each starting with a type byte.
+ *     Ticks are stored as the distance to the previous record's tick and counts as VarInts,
+ *     so a busy minute of shots stays in the kilobytes:
+ *     <pre>
+ *     header:    int MAGIC, varint VERSION
+ *     DIMENSION: varint index, utf name            (declares a dimension index used by later records)
+ *     FIRE:      varlong tick delta, varint dimension, varint player,
+ *                float x, y, z, float yRot, xRot, byte flags
+ *     HIT:       varlong tick delta, varint dimension, bool block hit, float x, y, z
+ *     </pre>
+ *     Players are numbered in the order they first fire, no names or UUIDs are stored.
+ * </p>
+ */
+public final class BeamTrace {
+    public static final int MAGIC = 0x4D515452; // "MQTR"
+    public static final int VERSION = 1;
+
+    // === record types ===
+    public static final byte DIMENSION = 0;
+    public static final byte FIRE = 1;
+    public static final byte HIT = 2;
+
+    // === FIRE flags ===
+    /** The shooter passed the full health check, so the sword actually tried to fire. */
+    public static final byte FLAG_HEALTH_GATE = 1;
+    /** The shooter was sneaking, so the shot was a volley. */
+    public static final byte FLAG_VOLLEY = 2;
+
+    private static final String EXTENSION = ".mqtrace";
+
+    private BeamTrace() {}
+
+    /** @return where traces are stored, next to the config and world folders */
+    public static Path directory() {
+        return FabricLoader.getInstance().getGameDir().resolve("mq-traces");
+    }
+
+    /** @return the trace file with the given name */
+    public static Path file(String name) {
+        return directory().resolve(name + EXTENSION);
+    }
+}
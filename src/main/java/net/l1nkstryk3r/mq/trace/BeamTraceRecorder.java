@@ -0,0 +1,205 @@
+package net.l1nkstryk3r.mq.trace;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Records every Master Sword shot and beam hit on the server into a {@link BeamTrace} file.
+ * <p>
+ *     Records are encoded into an in-memory buffer on the server thread, which only costs a few writes
+ *     per shot. The buffer is handed to a single background writer once per second (and when the
+ *     recording stops), so the server thread never waits on the disk.
+ * </p>
+ * <p>
+ *     While nothing is recording every hook is a single field check.
+ * </p>
+ */
+public final class BeamTraceRecorder {
+    // hand the buffer to the writer about once a second, or sooner if it gets big
+    private static final int FLUSH_INTERVAL_TICKS = 20;
+    private static final int FLUSH_BYTES = 64 * 1024;
+
+    // one writer thread keeps the chunks of a trace in order
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "MQ Beam Trace Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // the current recording, null while not recording
+    private static BeamTraceRecorder active;
+
+    private final Path path;
+    private final FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer(FLUSH_BYTES));
+    private final Object2IntOpenHashMap<ResourceKey<Level>> dimensions = new Object2IntOpenHashMap<>();
+    private final Int2IntOpenHashMap players = new Int2IntOpenHashMap();
+    private long lastTick;
+    private int ticksSinceFlush;
+    private long records;
+
+    private BeamTraceRecorder(Path path, long startTick) {
+        this.path = path;
+        this.lastTick = startTick;
+        dimensions.defaultReturnValue(-1);
+        players.defaultReturnValue(-1);
+    }
+
+    /**
+     * Hooks the periodic flush, and stops any recording with the server.
+     * Called once from the mod initializer.
+     */
+    public static void initialize() {
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (active != null) active.tick();
+        });
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> stop());
+    }
+
+    /** @return true while a trace is being recorded */
+    public static boolean isRecording() {
+        return active != null;
+    }
+
+    /**
+     * Starts recording into a new trace file, replacing one with the same name.
+     *
+     * @param startTick The server's current tick count
+     * @throws IOException if the file can't be created
+     */
+    public static void start(String name, long startTick) throws IOException {
+        stop();
+
+        Path path = BeamTrace.file(name);
+        Files.createDirectories(path.getParent());
+        Files.deleteIfExists(path);
+
+        BeamTraceRecorder recorder = new BeamTraceRecorder(path, startTick);
+        recorder.buf.writeInt(BeamTrace.MAGIC);
+        recorder.buf.writeVarInt(BeamTrace.VERSION);
+        active = recorder;
+        L1nksMasterQuest.LOGGER.info("Recording beam trace to {}", path);
+    }
+
+    /**
+     * Stops the current recording, if any, and writes out what's left of it.
+     *
+     * @return how many records the trace holds, or -1 if nothing was recording
+     */
+    public static long stop() {
+        BeamTraceRecorder recorder = active;
+        if (recorder == null) return -1;
+
+        active = null;
+        recorder.flush();
+        recorder.buf.release();
+        L1nksMasterQuest.LOGGER.info("Stopped beam trace {} after {} records", recorder.path, recorder.records);
+        return recorder.records;
+    }
+
+    /**
+     * Records a use of the sword, called from {@code MasterSword.use} on the server.
+     *
+     * @param healthGate Whether the shooter was healthy enough for the sword to try firing
+     * @param volley Whether the shot was a volley
+     */
+    public static void recordFire(ServerLevel level, Player player, boolean healthGate, boolean volley) {
+        BeamTraceRecorder recorder = active;
+        if (recorder == null) return;
+
+        int dimension = recorder.dimension(level);
+        int index = recorder.players.get(player.getId());
+        if (index < 0) {
+            index = recorder.players.size();
+            recorder.players.put(player.getId(), index);
+        }
+
+        FriendlyByteBuf buf = recorder.buf;
+        buf.writeByte(BeamTrace.FIRE);
+        recorder.writeTick(level);
+        buf.writeVarInt(dimension);
+        buf.writeVarInt(index);
+        buf.writeFloat((float) player.getX());
+        buf.writeFloat((float) player.getY());
+        buf.writeFloat((float) player.getZ());
+        buf.writeFloat(player.getYRot());
+        buf.writeFloat(player.getXRot());
+        buf.writeByte((healthGate ? BeamTrace.FLAG_HEALTH_GATE : 0) | (volley ? BeamTrace.FLAG_VOLLEY : 0));
+        recorder.records++;
+    }
+
+    /** Records a beam hit, called from {@code BeamHits} for both firing modes. */
+    public static void recordHit(ServerLevel level, boolean blockHit, double x, double y, double z) {
+        BeamTraceRecorder recorder = active;
+        if (recorder == null) return;
+
+        int dimension = recorder.dimension(level);
+
+        FriendlyByteBuf buf = recorder.buf;
+        buf.writeByte(BeamTrace.HIT);
+        recorder.writeTick(level);
+        buf.writeVarInt(dimension);
+        buf.writeBoolean(blockHit);
+        buf.writeFloat((float) x);
+        buf.writeFloat((float) y);
+        buf.writeFloat((float) z);
+        recorder.records++;
+    }
+
+    /** @return the dimension's index in this trace, declaring it first if it's new */
+    private int dimension(ServerLevel level) {
+        int index = dimensions.getInt(level.dimension());
+        if (index >= 0) return index;
+
+        index = dimensions.size();
+        dimensions.put(level.dimension(), index);
+        buf.writeByte(BeamTrace.DIMENSION);
+        buf.writeVarInt(index);
+        buf.writeUtf(level.dimension().location().toString());
+        return index;
+    }
+
+    private void writeTick(ServerLevel level) {
+        long tick = level.getServer().getTickCount();
+        buf.writeVarLong(Math.max(tick - lastTick, 0));
+        lastTick = tick;
+    }
+
+    private void tick() {
+        if (++ticksSinceFlush >= FLUSH_INTERVAL_TICKS || buf.readableBytes() >= FLUSH_BYTES) flush();
+    }
+
+    /** Copies the buffered records out and appends them to the file in the background. */
+    private void flush() {
+        ticksSinceFlush = 0;
+        if (buf.readableBytes() == 0) return;
+
+        byte[] chunk = new byte[buf.readableBytes()];
+        buf.readBytes(chunk);
+        buf.clear();
+
+        WRITER.execute(() -> {
+            try (OutputStream out = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                out.write(chunk);
+            } catch (IOException e) {
+                L1nksMasterQuest.LOGGER.error("Failed to write beam trace {}", path, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,325 @@
+package net.l1nkstryk3r.mq.trace;
+
+import com.mojang.authlib.GameProfile;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
+import it.unimi.dsi.fastutil.floats.FloatArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.fabricmc.fabric.api.entity.FakePlayer;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.l1nkstryk3r.mq.L1nksMasterQuest;
+import net.l1nkstryk3r.mq.beam.BeamManager;
+import net.l1nkstryk3r.mq.item.ModItems;
+import net.l1nkstryk3r.mq.stats.BeamStats;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
+
+/**
+ * Replays a recorded {@link BeamTrace} as load: every recorded shot is fired again, on the same tick
+ * offset, by a {@link FakePlayer} standing where the real player stood.
+ * <p>
+ *     Shots go through {@code MasterSword.use} like real ones, so admission, the health check and
+ *     either firing mode all run as in production. When the last shot's beams are gone, a report
+ *     with the tick time percentiles, the server thread's allocation rate, and the beam packet and hit
+ *     counts is logged and sent to whoever started the replay.
+ * </p>
+ * <p>
+ *     Start a dedicated server with {@code -Dl1nks-master-quest.replay=<trace name>} to run a replay
+ *     without anyone joining; the server stops by itself once the report is written.
+ * </p>
+ * <p>
+ *     Fake players aren't part of the level, but both firing modes hold on to the entity that fired a beam,
+ *     so replayed entity hits deal damage and play their effects like the recorded ones did.
+ * </p>
+ */
+public final class BeamTraceReplay {
+    private static final String AUTO_REPLAY_PROPERTY = L1nksMasterQuest.MOD_ID + ".replay";
+    // the health check passes at max health - 1, so this is safely below it
+    private static final float FAILED_GATE_HEALTH_OFFSET = 2.0f;
+
+    // the running replay, null while none is
+    private static BeamTraceReplay active;
+
+    private final String name;
+    private final boolean haltWhenDone;
+    @Nullable
+    private final CommandSourceStack source;
+
+    // === decoded shots, in order ===
+    private final LongArrayList fireTick = new LongArrayList();
+    private final IntArrayList fireDimension = new IntArrayList();
+    private final IntArrayList firePlayer = new IntArrayList();
+    private final FloatArrayList fireX = new FloatArrayList(), fireY = new FloatArrayList(), fireZ = new FloatArrayList();
+    private final FloatArrayList fireYRot = new FloatArrayList(), fireXRot = new FloatArrayList();
+    private final BooleanArrayList fireHealthGate = new BooleanArrayList();
+    private final BooleanArrayList fireVolley = new BooleanArrayList();
+    private int recordedHits;
+    // levels by trace dimension index, null where this server doesn't have the dimension
+    private final List<ServerLevel> levels = new ArrayList<>();
+
+    // === progress ===
+    private final long startTick;
+    private int cursor;
+    private int skipped;
+
+    // === measurements ===
+    private final LongArrayList tickNanos = new LongArrayList();
+    private final long startNanos;
+    private final long startAllocated;
+    private final long startPackets;
+    private final long startSpawned;
+    private final long startHits;
+
+    private BeamTraceReplay(MinecraftServer server, String name, FriendlyByteBuf buf,
+                            @Nullable CommandSourceStack source, boolean haltWhenDone) throws IOException {
+        this.name = name;
+        this.source = source;
+        this.haltWhenDone = haltWhenDone;
+
+        if (buf.readInt() != BeamTrace.MAGIC) throw new IOException("Not a beam trace");
+        int version = buf.readVarInt();
+        if (version != BeamTrace.VERSION) throw new IOException("Unsupported beam trace version " + version);
+
+        long tick = 0;
+        while (buf.isReadable()) {
+            byte type = buf.readByte();
+            switch (type) {
+                case BeamTrace.DIMENSION -> {
+                    int index = buf.readVarInt();
+                    ResourceKey<Level> key = ResourceKey.create(Registries.DIMENSION, new ResourceLocation(buf.readUtf()));
+                    while (levels.size() <= index) levels.add(null);
+                    levels.set(index, server.getLevel(key));
+                }
+                case BeamTrace.FIRE -> {
+                    tick += buf.readVarLong();
+                    fireTick.add(tick);
+                    fireDimension.add(buf.readVarInt());
+                    firePlayer.add(buf.readVarInt());
+                    fireX.add(buf.readFloat());
+                    fireY.add(buf.readFloat());
+                    fireZ.add(buf.readFloat());
+                    fireYRot.add(buf.readFloat());
+                    fireXRot.add(buf.readFloat());
+                    byte flags = buf.readByte();
+                    fireHealthGate.add((flags & BeamTrace.FLAG_HEALTH_GATE) != 0);
+                    fireVolley.add((flags & BeamTrace.FLAG_VOLLEY) != 0);
+                }
+                case BeamTrace.HIT -> {
+                    // hits aren't replayed, they happen again on their own; only their number is compared
+                    tick += buf.readVarLong();
+                    buf.readVarInt();
+                    buf.readBoolean();
+                    buf.skipBytes(3 * Float.BYTES);
+                    recordedHits++;
+                }
+                default -> throw new IOException("Unknown beam trace record " + type);
+            }
+        }
+
+        startTick = server.getTickCount();
+        startNanos = System.nanoTime();
+        startAllocated = allocatedBytes(server);
+        startPackets = sumStats(server, BeamStats::packets);
+        startSpawned = sumStats(server, BeamStats::spawned);
+        startHits = sumStats(server, stats -> stats.entityHits() + stats.blockHits());
+    }
+
+    /**
+     * Hooks the replay into the server tick, and starts the replay requested on the command line, if any.
+     * Called once from the mod initializer.
+     */
+    public static void initialize() {
+        // shots fire when the overworld, the first level, starts ticking. That is inside the span vanilla
+        // times as the tick, unlike START_SERVER_TICK, so the measured tick time includes the shots themselves
+        ServerTickEvents.START_WORLD_TICK.register(level -> {
+            if (active != null && level == level.getServer().overworld()) active.fireDue(level.getServer());
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            if (active != null) active.sample(server);
+        });
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            String name = System.getProperty(AUTO_REPLAY_PROPERTY);
+            if (name == null) return;
+            try {
+                start(server, name, null, true);
+            } catch (IOException e) {
+                L1nksMasterQuest.LOGGER.error("Failed to start beam trace replay {}", name, e);
+                server.halt(false);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> active = null);
+    }
+
+    /**
+     * Loads a trace and starts replaying it, replacing any running replay.
+     *
+     * @param source Receives the report when the replay is done, may be null
+     * @param haltWhenDone Whether to stop the server after the report
+     * @return how many shots will be replayed
+     * @throws IOException if the trace can't be read
+     */
+    public static int start(MinecraftServer server, String name, @Nullable CommandSourceStack source, boolean haltWhenDone) throws IOException {
+        Path path = BeamTrace.file(name);
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.wrappedBuffer(Files.readAllBytes(path)));
+        try {
+            active = new BeamTraceReplay(server, name, buf, source, haltWhenDone);
+        } finally {
+            buf.release();
+        }
+        L1nksMasterQuest.LOGGER.info("Replaying beam trace {} ({} shots)", path, active.fireTick.size());
+        return active.fireTick.size();
+    }
+
+    /**
+     * Stops the running replay early, without a report.
+     *
+     * @return true if a replay was running
+     */
+    public static boolean stop() {
+        boolean running = active != null;
+        active = null;
+        return running;
+    }
+
+    private void fireDue(MinecraftServer server) {
+        long elapsed = server.getTickCount() - startTick;
+        while (cursor < fireTick.size() && fireTick.getLong(cursor) <= elapsed) {
+            fire(cursor++);
+        }
+    }
+
+    /** Fires one recorded shot through the sword, as the fake player standing in for its shooter. */
+    private void fire(int shot) {
+        int dimension = fireDimension.getInt(shot);
+        ServerLevel level = dimension < levels.size() ? levels.get(dimension) : null;
+        if (level == null) {
+            skipped++;
+            return;
+        }
+
+        FakePlayer player = FakePlayer.get(level, profile(firePlayer.getInt(shot)));
+        player.moveTo(fireX.getFloat(shot), fireY.getFloat(shot), fireZ.getFloat(shot), fireYRot.getFloat(shot), fireXRot.getFloat(shot));
+        player.setHealth(fireHealthGate.getBoolean(shot) ? player.getMaxHealth() : player.getMaxHealth() - FAILED_GATE_HEALTH_OFFSET);
+        player.setShiftKeyDown(fireVolley.getBoolean(shot));
+
+        if (!player.getMainHandItem().is(ModItems.MASTER_SWORD)) {
+            player.setItemInHand(InteractionHand.MAIN_HAND, new ItemStack(ModItems.MASTER_SWORD));
+        }
+        // fake players never tick, so their cooldowns would never run out; the trace already has the real timing
+        player.getCooldowns().removeCooldown(ModItems.MASTER_SWORD);
+        player.getMainHandItem().use(level, player, InteractionHand.MAIN_HAND);
+    }
+
+    private void sample(MinecraftServer server) {
+        long elapsed = server.getTickCount() - startTick;
+        // the tick that started the replay was already half over
+        if (elapsed >= 1) tickNanos.add(server.tickTimes[server.getTickCount() % server.tickTimes.length]);
+
+        // done once every shot was fired and their beams are gone
+        if (cursor == fireTick.size() && elapsed > lastFireTick() && liveBeams(server) == 0) {
+            active = null;
+            report(server);
+            if (haltWhenDone) server.halt(false);
+        }
+    }
+
+    private static int liveBeams(MinecraftServer server) {
+        int live = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            live += BeamManager.get(level).admission().liveBeams();
+        }
+        return live;
+    }
+
+    private long lastFireTick() {
+        return fireTick.isEmpty() ? 0 : fireTick.getLong(fireTick.size() - 1);
+    }
+
+    private void report(MinecraftServer server) {
+        long[] sorted = tickNanos.toLongArray();
+        Arrays.sort(sorted);
+        double seconds = (System.nanoTime() - startNanos) / 1.0E9;
+        long allocated = allocatedBytes(server) - startAllocated;
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Beam trace replay '%s': %d ticks, %d shots (%d skipped, dimension missing)",
+            name, sorted.length, fireTick.size(), skipped));
+        lines.add(String.format(Locale.ROOT, "  mspt p50 %.2f p95 %.2f p99 %.2f max %.2f",
+            millis(percentile(sorted, 50)), millis(percentile(sorted, 95)), millis(percentile(sorted, 99)),
+            millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1])));
+        lines.add(allocated < 0
+            ? "  allocation rate: unavailable on this JVM"
+            : String.format(Locale.ROOT, "  allocation rate: %.1f MB/s on the server thread", allocated / seconds / (1024.0 * 1024.0)));
+        if (BeamStats.enabled()) {
+            long spawned = sumStats(server, BeamStats::spawned) - startSpawned;
+            long packets = sumStats(server, BeamStats::packets) - startPackets;
+            long hits = sumStats(server, stats -> stats.entityHits() + stats.blockHits()) - startHits;
+            lines.add(String.format(Locale.ROOT, "  beams fired %d, packets %d, hits %d (%d in the trace)",
+                spawned, packets, hits, recordedHits));
+        } else {
+            lines.add("  beam packet and hit counts unavailable, instrumentation is off");
+        }
+
+        for (String line : lines) {
+            L1nksMasterQuest.LOGGER.info(line);
+            if (source != null) source.sendSuccess(() -> Component.literal(line), false);
+        }
+    }
+
+    /** Fake players are keyed by profile, so the same trace player always gets the same fake player. */
+    private static GameProfile profile(int player) {
+        String name = "mq_replay_" + player;
+        return new GameProfile(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)), name);
+    }
+
+    /** @return bytes allocated by the server thread so far, or -1 if the JVM can't tell */
+    private static long allocatedBytes(MinecraftServer server) {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getThreadAllocatedBytes(server.getRunningThread().getId());
+        }
+        return -1;
+    }
+
+    private static long sumStats(MinecraftServer server, ToLongFunction<BeamStats> counter) {
+        long sum = 0;
+        for (ServerLevel level : server.getAllLevels()) {
+            sum += counter.applyAsLong(BeamManager.get(level).stats());
+        }
+        return sum;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(index, 0)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1.0E6;
+    }
+}